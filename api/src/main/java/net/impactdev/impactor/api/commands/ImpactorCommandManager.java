@@ -28,6 +28,8 @@ package net.impactdev.impactor.api.commands;
 import cloud.commandframework.CommandManager;
 import cloud.commandframework.extra.confirmation.CommandConfirmationManager;
 import net.impactdev.impactor.api.Impactor;
+import net.impactdev.impactor.api.commands.confirmations.CommandConfirmations;
+import net.impactdev.impactor.api.commands.metrics.CommandMetrics;
 import net.impactdev.impactor.api.logging.PluginLogger;
 import net.impactdev.impactor.api.platform.plugins.PluginMetadata;
 import net.impactdev.impactor.api.utility.builders.Builder;
@@ -42,8 +44,40 @@ public interface ImpactorCommandManager {
 
     CommandManager<CommandSource> delegate();
 
+    /**
+     * Provides cloud's confirmation manager for this manager's commands.
+     *
+     * @return A confirmation manager backed by {@link #pendingConfirmations()}
+     * @deprecated Commands awaiting confirmation are tracked by {@link #pendingConfirmations()}, which
+     * this manager merely delegates to. Use that instead.
+     */
+    @Deprecated
     CommandConfirmationManager<CommandSource> confirmations();
 
+    /**
+     * Provides the commands of this manager currently awaiting confirmation from their source.
+     *
+     * @return The pending confirmations of this manager
+     */
+    CommandConfirmations pendingConfirmations();
+
+    /**
+     * Provides the latency recorded for each phase of processing the commands of this manager.
+     *
+     * @return The metrics of this manager's commands
+     */
+    CommandMetrics metrics();
+
+    /**
+     * Registers the commands declared through cloud annotations on the given instance. If a
+     * {@link net.impactdev.impactor.api.commands.registration.CommandRegistrar CommandRegistrar} was
+     * generated for the instance's type at compile time, it will be used to register the commands directly.
+     * Otherwise, the instance is parsed reflectively by cloud's annotation parser.
+     *
+     * @param instance The instance declaring annotated command methods
+     */
+    void register(Object instance);
+
     interface CommandManagerBuilder extends Builder<ImpactorCommandManager> {
 
         CommandManagerBuilder provider(PluginMetadata metadata);
@@ -0,0 +1,82 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.api.commands.confirmations;
+
+import cloud.commandframework.execution.CommandExecutionHandler;
+import cloud.commandframework.extra.confirmation.CommandConfirmationManager;
+import cloud.commandframework.meta.CommandMeta;
+import net.impactdev.impactor.api.commands.CommandSource;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Tracks commands awaiting confirmation from their source. A command requires confirmation when its
+ * {@link #REQUIRED} meta value is set, such as through cloud's {@code @Confirmation} annotation. Rather
+ * than executing, the command is held as pending for its source until confirmed through the
+ * {@link #confirmationHandler() confirmation handler}, or until it expires.
+ *
+ * <p>Each source may hold a single pending command at a time, with a newer command replacing any command
+ * already pending. Pending commands of a player are discarded once they disconnect.</p>
+ */
+public interface CommandConfirmations {
+
+    /**
+     * Marks a command as requiring confirmation. This is the same key as used by cloud's own confirmation
+     * manager, so existing confirmation annotations and builders continue to apply.
+     */
+    CommandMeta.Key<Boolean> REQUIRED = CommandConfirmationManager.META_CONFIRMATION_REQUIRED;
+
+    /**
+     * Overrides how long a command remains pending before it expires. Commands without this meta value
+     * expire after the default timeout of their command manager.
+     */
+    CommandMeta.Key<Duration> TIMEOUT = CommandMeta.Key.of(Duration.class, "impactor:confirmation_timeout");
+
+    /**
+     * Provides an execution handler which executes the command pending for the sender, if any. This is
+     * intended to back a confirmation command, such as {@code /confirm}.
+     *
+     * @return A handler executing pending commands
+     */
+    CommandExecutionHandler<CommandSource> confirmationHandler();
+
+    /**
+     * Discards the command pending for the given source, if any.
+     *
+     * @param source The unique ID of the source
+     * @return True if a pending command was discarded
+     */
+    boolean invalidate(UUID source);
+
+    /**
+     * Indicates the number of commands currently awaiting confirmation.
+     *
+     * @return The number of pending commands
+     */
+    int pending();
+
+}
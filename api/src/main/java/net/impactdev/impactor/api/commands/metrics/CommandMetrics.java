@@ -0,0 +1,107 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.api.commands.metrics;
+
+import net.impactdev.impactor.api.platform.plugins.PluginMetadata;
+
+import java.util.Set;
+
+/**
+ * Latency metrics recorded by a command manager for each of its commands, grouped by the root literal
+ * of the command. As each command manager belongs to a single plugin, these metrics are also keyed by
+ * the plugin which registered the commands.
+ */
+public interface CommandMetrics {
+
+    /**
+     * Represents the plugin which registered the commands measured by these metrics.
+     *
+     * @return The plugin owning these metrics
+     */
+    PluginMetadata plugin();
+
+    /**
+     * Represents the root literals of every command with recorded metrics.
+     *
+     * @return The root literals of measured commands
+     */
+    Set<String> roots();
+
+    /**
+     * Provides the latency recorded for the given phase of the commands under the given root literal.
+     * If no latency has been recorded, the returned histogram will simply be empty.
+     *
+     * @param root The root literal of the commands
+     * @param phase The phase of command processing
+     * @return The recorded latency
+     */
+    LatencyHistogram latency(String root, Phase phase);
+
+    /**
+     * Provides the time taken to compute suggestions for the commands under the given root literal.
+     * If no suggestions have been computed, the returned histogram will simply be empty.
+     *
+     * @param root The root literal of the commands
+     * @return The recorded suggestion latency
+     */
+    LatencyHistogram suggestions(String root);
+
+    /**
+     * Provides the total bytes allocated by the handlers of commands under the given root literal. Allocations
+     * are only recorded while allocation tracking is enabled, and as such, this may be 0 even for commands
+     * which have executed.
+     *
+     * @param root The root literal of the commands
+     * @return The bytes allocated by the commands
+     */
+    long allocated(String root);
+
+    /**
+     * Provides the distribution of bytes allocated by each execution of the commands under the given root
+     * literal, while allocation tracking was enabled. The values of this histogram are in bytes.
+     *
+     * @param root The root literal of the commands
+     * @return The bytes allocated by each execution
+     */
+    Histogram allocations(String root);
+
+    /**
+     * The phases of processing a command, in the order they are performed.
+     */
+    enum Phase {
+        /** The time spent waiting for a command executor thread to become available */
+        QUEUE_WAIT,
+        /** The time spent preparing the command context before the input is parsed */
+        PREPROCESSING,
+        /** The time spent parsing the input, excluding any permission checks made while doing so */
+        PARSING,
+        /** The time spent checking the permissions of the command source */
+        PERMISSION,
+        /** The time spent within the command's handler */
+        EXECUTION
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.api.commands.metrics;
+
+/**
+ * A distribution of recorded values, such as latencies or byte counts. Recorded values are grouped into
+ * buckets whose width grows with their magnitude, such that any reported value is within roughly 6% of the
+ * true value. Values are reported in the unit they were recorded in, as described by the provider of the
+ * histogram.
+ */
+public interface Histogram {
+
+    /**
+     * Indicates how many values have been recorded.
+     *
+     * @return The number of recorded values
+     */
+    long count();
+
+    /**
+     * Indicates the sum of every recorded value.
+     *
+     * @return The total of the recorded values
+     */
+    long total();
+
+    /**
+     * Indicates the largest value recorded.
+     *
+     * @return The maximum recorded value
+     */
+    long max();
+
+    /**
+     * Calculates the value below which the given percentage of recorded values fall.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The value at the given percentile, or 0 if nothing was recorded
+     */
+    long percentile(double percentile);
+
+    /**
+     * Calculates the average recorded value.
+     *
+     * @return The mean recorded value, or 0 if nothing was recorded
+     */
+    default double mean() {
+        final long count = this.count();
+        return count == 0 ? 0 : (double) this.total() / count;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.api.commands.metrics;
+
+/**
+ * A distribution of latencies, in nanoseconds.
+ */
+public interface LatencyHistogram extends Histogram {
+
+    /**
+     * Indicates how many latencies have been recorded.
+     *
+     * @return The number of recorded latencies
+     */
+    @Override
+    long count();
+
+    /**
+     * Indicates the sum of every recorded latency.
+     *
+     * @return The total recorded latency, in nanoseconds
+     */
+    @Override
+    long total();
+
+    /**
+     * Indicates the largest latency recorded.
+     *
+     * @return The maximum recorded latency, in nanoseconds
+     */
+    @Override
+    long max();
+
+    /**
+     * Calculates the latency below which the given percentage of recorded latencies fall.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency at the given percentile, in nanoseconds, or 0 if nothing was recorded
+     */
+    @Override
+    long percentile(double percentile);
+
+    /**
+     * Calculates the average recorded latency.
+     *
+     * @return The mean recorded latency, in nanoseconds, or 0 if nothing was recorded
+     */
+    @Override
+    default double mean() {
+        return Histogram.super.mean();
+    }
+
+}
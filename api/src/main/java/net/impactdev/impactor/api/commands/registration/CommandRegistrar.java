@@ -0,0 +1,57 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.api.commands.registration;
+
+import cloud.commandframework.CommandManager;
+import net.impactdev.impactor.api.commands.CommandSource;
+
+/**
+ * Registers the commands declared through cloud annotations on a particular type, without relying on
+ * reflection. Implementations are generated at compile time by the Impactor command processor, and are
+ * located via {@link java.util.ServiceLoader} when an instance of the type is registered through
+ * {@link net.impactdev.impactor.api.commands.ImpactorCommandManager#register(Object)}.
+ *
+ * @param <T> The type declaring the annotated command methods
+ */
+public interface CommandRegistrar<T> {
+
+    /**
+     * Represents the type whose annotated command methods are registered by this registrar.
+     *
+     * @return The type declaring the annotated command methods
+     */
+    Class<T> type();
+
+    /**
+     * Registers each command declared by the type to the given manager, with handlers invoking
+     * the annotated methods of the given instance.
+     *
+     * @param manager The manager to register commands to
+     * @param instance The instance handling the registered commands
+     */
+    void register(CommandManager<CommandSource> manager, T instance);
+
+}
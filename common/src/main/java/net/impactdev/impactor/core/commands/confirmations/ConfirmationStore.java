@@ -0,0 +1,242 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.confirmations;
+
+import cloud.commandframework.CommandManager;
+import cloud.commandframework.execution.CommandExecutionHandler;
+import cloud.commandframework.execution.postprocessor.CommandPostprocessingContext;
+import cloud.commandframework.execution.postprocessor.CommandPostprocessor;
+import cloud.commandframework.meta.CommandMeta;
+import cloud.commandframework.services.types.ConsumerService;
+import net.impactdev.impactor.api.commands.CommandSource;
+import net.impactdev.impactor.api.commands.confirmations.CommandConfirmations;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A confirmation store backed by a hashed timer wheel, keyed by the UUID of each command source.
+ *
+ * <p>Pending commands are placed into the slot of the wheel matching the tick they expire on, with each slot
+ * holding a doubly linked list of its entries. Adding, confirming, and invalidating a pending command are
+ * therefore constant time, regardless of how many commands are pending, and expiring a command costs no more
+ * than visiting its slot once its tick has passed. The wheel is advanced as the store is accessed, rather than
+ * by a dedicated thread, visiting at most one full revolution of slots however long the store was idle.</p>
+ */
+public final class ConfirmationStore implements CommandConfirmations {
+
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int SLOTS = 512;
+    private static final int MASK = SLOTS - 1;
+
+    private final long timeout;
+    private final Consumer<CommandPostprocessingContext<CommandSource>> notifier;
+    private final Consumer<CommandSource> missing;
+
+    private final Map<UUID, Entry> pending = new HashMap<>();
+    private final Entry[] wheel = new Entry[SLOTS];
+    private final long origin = System.nanoTime();
+    private long tick;
+
+    /**
+     * Creates a new store.
+     *
+     * @param timeout  The default time a command remains pending
+     * @param notifier Notifies a source that their command awaits confirmation
+     * @param missing  Notifies a source that they have no command awaiting confirmation
+     */
+    public ConfirmationStore(
+            final @NonNull Duration timeout,
+            final @NonNull Consumer<CommandPostprocessingContext<CommandSource>> notifier,
+            final @NonNull Consumer<CommandSource> missing
+    ) {
+        this.timeout = timeout.toNanos();
+        this.notifier = notifier;
+        this.missing = missing;
+    }
+
+    /**
+     * Registers the postprocessor which holds commands requiring confirmation as pending, rather
+     * than allowing them to execute.
+     *
+     * @param manager The manager to register the postprocessor with
+     */
+    public void register(final @NonNull CommandManager<CommandSource> manager) {
+        manager.registerCommandPostProcessor(new Postprocessor());
+    }
+
+    @Override
+    public CommandExecutionHandler<CommandSource> confirmationHandler() {
+        return context -> {
+            final @Nullable CommandPostprocessingContext<CommandSource> pending = this.take(context.getSender().uuid());
+            if(pending == null) {
+                this.missing.accept(context.getSender());
+                return;
+            }
+
+            pending.getCommand().getCommandExecutionHandler().execute(pending.getCommandContext());
+        };
+    }
+
+    @Override
+    public synchronized boolean invalidate(final UUID source) {
+        this.advance();
+
+        final @Nullable Entry entry = this.pending.remove(source);
+        if(entry == null) {
+            return false;
+        }
+
+        this.unlink(entry);
+        return true;
+    }
+
+    @Override
+    public synchronized int pending() {
+        this.advance();
+        return this.pending.size();
+    }
+
+    private synchronized void add(final UUID source, final CommandPostprocessingContext<CommandSource> context, final long timeout) {
+        final long now = this.advance();
+
+        final @Nullable Entry previous = this.pending.remove(source);
+        if(previous != null) {
+            this.unlink(previous);
+        }
+
+        final Entry entry = new Entry(source, context, now + Math.max(1, (timeout + TICK - 1) / TICK));
+        this.pending.put(source, entry);
+        this.link(entry);
+    }
+
+    synchronized @Nullable CommandPostprocessingContext<CommandSource> take(final UUID source) {
+        this.advance();
+
+        final @Nullable Entry entry = this.pending.remove(source);
+        if(entry == null) {
+            return null;
+        }
+
+        this.unlink(entry);
+        return entry.context;
+    }
+
+    /**
+     * Expires every entry whose tick has passed since the wheel was last advanced. Slots are visited
+     * in tick order, though never more than once, as a single revolution already covers every slot.
+     *
+     * @return The current tick
+     */
+    private long advance() {
+        final long now = (System.nanoTime() - this.origin) / TICK;
+        for(long current = Math.max(this.tick + 1, now - MASK); current <= now; current++) {
+            this.expire((int) (current & MASK), now);
+        }
+
+        this.tick = Math.max(this.tick, now);
+        return now;
+    }
+
+    private void expire(final int slot, final long now) {
+        @Nullable Entry entry = this.wheel[slot];
+        while(entry != null) {
+            final @Nullable Entry next = entry.next;
+            if(entry.deadline <= now) {
+                this.unlink(entry);
+                this.pending.remove(entry.source, entry);
+            }
+
+            entry = next;
+        }
+    }
+
+    private void link(final Entry entry) {
+        final int slot = (int) (entry.deadline & MASK);
+        final @Nullable Entry head = this.wheel[slot];
+
+        entry.next = head;
+        if(head != null) {
+            head.previous = entry;
+        }
+
+        this.wheel[slot] = entry;
+    }
+
+    private void unlink(final Entry entry) {
+        if(entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            this.wheel[(int) (entry.deadline & MASK)] = entry.next;
+        }
+
+        if(entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private static final class Entry {
+
+        private final UUID source;
+        private final CommandPostprocessingContext<CommandSource> context;
+        private final long deadline;
+
+        private @Nullable Entry previous;
+        private @Nullable Entry next;
+
+        private Entry(final UUID source, final CommandPostprocessingContext<CommandSource> context, final long deadline) {
+            this.source = source;
+            this.context = context;
+            this.deadline = deadline;
+        }
+    }
+
+    private final class Postprocessor implements CommandPostprocessor<CommandSource> {
+
+        @Override
+        public void accept(final @NonNull CommandPostprocessingContext<CommandSource> context) {
+            final CommandMeta meta = context.getCommand().getCommandMeta();
+            if(!meta.getOrDefault(REQUIRED, false)) {
+                return;
+            }
+
+            final long timeout = meta.get(TIMEOUT).map(Duration::toNanos).orElse(ConfirmationStore.this.timeout);
+            ConfirmationStore.this.add(context.getCommandContext().getSender().uuid(), context, timeout);
+            ConfirmationStore.this.notifier.accept(context);
+
+            ConsumerService.interrupt();
+        }
+    }
+}
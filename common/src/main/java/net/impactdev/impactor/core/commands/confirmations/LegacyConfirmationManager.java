@@ -0,0 +1,70 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.confirmations;
+
+import cloud.commandframework.CommandManager;
+import cloud.commandframework.execution.CommandExecutionHandler;
+import cloud.commandframework.execution.postprocessor.CommandPostprocessingContext;
+import cloud.commandframework.extra.confirmation.CommandConfirmationManager;
+import net.impactdev.impactor.api.commands.CommandSource;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Exposes a {@link ConfirmationStore} through cloud's confirmation manager, for callers still relying on
+ * the deprecated {@link net.impactdev.impactor.api.commands.ImpactorCommandManager#confirmations()} accessor.
+ * Pending commands are held by the store alone, so registering the processor again has no effect.
+ */
+public final class LegacyConfirmationManager extends CommandConfirmationManager<CommandSource> {
+
+    private final ConfirmationStore store;
+
+    public LegacyConfirmationManager(
+            final @NonNull ConfirmationStore store,
+            final long timeout,
+            final @NonNull Consumer<CommandPostprocessingContext<CommandSource>> notifier,
+            final @NonNull Consumer<CommandSource> missing
+    ) {
+        super(timeout, TimeUnit.MILLISECONDS, notifier, missing);
+        this.store = store;
+    }
+
+    @Override
+    public @NonNull Optional<CommandPostprocessingContext<CommandSource>> getPending(final @NonNull CommandSource sender) {
+        return Optional.ofNullable(this.store.take(sender.uuid()));
+    }
+
+    @Override
+    public void registerConfirmationProcessor(final @NonNull CommandManager<CommandSource> manager) {}
+
+    @Override
+    public @NonNull CommandExecutionHandler<CommandSource> createConfirmationExecutionHandler() {
+        return this.store.confirmationHandler();
+    }
+}
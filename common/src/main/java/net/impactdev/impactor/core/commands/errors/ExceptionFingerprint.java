@@ -0,0 +1,123 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.errors;
+
+import cloud.commandframework.context.CommandContext;
+import cloud.commandframework.exceptions.CommandExecutionException;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Identifies a class of command failure by the command which failed, the type of exception it
+ * failed with, and the top-most frames of that exception's stack trace. Repeated failures of a
+ * broken command share a fingerprint, whereas failures at different locations do not.
+ */
+public final class ExceptionFingerprint {
+
+    private static final int FRAMES = 5;
+
+    private final String command;
+    private final String type;
+    private final StackTraceElement[] frames;
+    private final int hash;
+
+    private ExceptionFingerprint(String command, String type, StackTraceElement[] frames) {
+        this.command = command;
+        this.type = type;
+        this.frames = frames;
+        this.hash = Objects.hash(command, type, Arrays.hashCode(frames));
+    }
+
+    public static ExceptionFingerprint of(@NonNull CommandExecutionException exception) {
+        final Throwable cause = cause(exception);
+        final StackTraceElement[] trace = cause.getStackTrace();
+
+        return new ExceptionFingerprint(
+                command(exception.getCommandContext()),
+                cause.getClass().getName(),
+                Arrays.copyOf(trace, Math.min(FRAMES, trace.length))
+        );
+    }
+
+    /**
+     * Provides the exception which caused the command to fail. Where a command throws an exception,
+     * cloud wraps it within a {@link CommandExecutionException}, which is of no interest itself.
+     *
+     * @param exception The exception raised during command execution
+     * @return The underlying cause of the exception, or the exception itself if it has no cause
+     */
+    public static Throwable cause(@NonNull CommandExecutionException exception) {
+        return exception.getCause() != null ? exception.getCause() : exception;
+    }
+
+    private static String command(@Nullable CommandContext<?> context) {
+        if(context == null) {
+            return "<unknown>";
+        }
+
+        final String input = context.getRawInputJoined();
+        final int split = input.indexOf(' ');
+        return split == -1 ? input : input.substring(0, split);
+    }
+
+    public String command() {
+        return this.command;
+    }
+
+    public String type() {
+        return this.type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+
+        if(!(o instanceof ExceptionFingerprint)) {
+            return false;
+        }
+
+        final ExceptionFingerprint other = (ExceptionFingerprint) o;
+        return this.hash == other.hash
+                && this.command.equals(other.command)
+                && this.type.equals(other.type)
+                && Arrays.equals(this.frames, other.frames);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return this.command + " -> " + this.type + (this.frames.length > 0 ? " @ " + this.frames[0] : "");
+    }
+}
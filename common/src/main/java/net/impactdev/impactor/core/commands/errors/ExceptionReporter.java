@@ -0,0 +1,209 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.errors;
+
+import cloud.commandframework.exceptions.CommandExecutionException;
+import com.google.common.base.Strings;
+import net.impactdev.impactor.api.logging.PluginLogger;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Tracks the failures of commands by their {@link ExceptionFingerprint fingerprint}. The first failure
+ * of a fingerprint is reported in full, while any further failures sharing that fingerprint are only
+ * counted, and summarized at most once per summary interval. This keeps a repeatedly failing command
+ * from flooding the logs with identical reports.
+ *
+ * <p>The stack trace of a fingerprint, along with the message presented to the source of the command,
+ * is rendered once on the first failure and reused for every failure thereafter.</p>
+ *
+ * <p>Reports and summaries are written by the {@link ReportPipeline}, off of the thread the command
+ * failed on. Only the state a report requires is captured when the failure is recorded. Reports which
+ * the pipeline cannot accept are dropped, and their number is logged alongside the next summaries.</p>
+ *
+ * <p>The summary interval defaults to 60 seconds, and may be configured via the
+ * {@code impactor.commands.errors.summary-interval} system property, in seconds.</p>
+ *
+ * <p>Fingerprints are forgotten once they have not failed for ten summary intervals, and their failures
+ * have all been summarized. No more than {@code impactor.commands.errors.max-fingerprints} fingerprints,
+ * defaulting to 1024, are retained past each flush, with those which failed least recently being summarized
+ * and forgotten first. A forgotten fingerprint is reported in full again should it fail once more.</p>
+ */
+public final class ExceptionReporter {
+
+    private static final long SUMMARY_INTERVAL = TimeUnit.SECONDS.toNanos(
+            Long.getLong("impactor.commands.errors.summary-interval", 60L)
+    );
+    private static final long EXPIRY = SUMMARY_INTERVAL * 10;
+    private static final int MAX_FINGERPRINTS = Math.max(1, Integer.getInteger("impactor.commands.errors.max-fingerprints", 1024));
+
+    private final PluginLogger logger;
+    private final Function<CommandExecutionException, Runnable> report;
+    private final Map<ExceptionFingerprint, Occurrences> occurrences = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile UnaryOperator<Component> decorator = UnaryOperator.identity();
+
+    /**
+     * @param logger The logger receiving summaries of repeated failures
+     * @param report Captures the first failure of each fingerprint, providing the task which reports
+     *               it in full. The task is run on the reporter thread.
+     */
+    public ExceptionReporter(@NonNull PluginLogger logger, @NonNull Function<CommandExecutionException, Runnable> report) {
+        this.logger = logger;
+        this.report = report;
+        ReportPipeline.instance().watch(this);
+    }
+
+    /**
+     * Records a failure of a command, reporting it in full if it is the first failure of its fingerprint.
+     *
+     * @param exception The exception raised during execution of the command
+     * @return The message to present to the source of the failed command
+     */
+    public Component record(@NonNull CommandExecutionException exception) {
+        final ExceptionFingerprint fingerprint = ExceptionFingerprint.of(exception);
+        final Occurrences occurrences = this.occurrences.computeIfAbsent(
+                fingerprint,
+                key -> new Occurrences(key, ExceptionFingerprint.cause(exception))
+        );
+
+        occurrences.seen.set(System.nanoTime());
+        if(occurrences.count.incrementAndGet() == 1 && !ReportPipeline.instance().submit(this.logger, this.report.apply(exception))) {
+            this.dropped.incrementAndGet();
+        }
+
+        return this.decorator.apply(occurrences.message);
+    }
+
+    /**
+     * Sets the decorator applied to each message presented to the source of a failed command, such as
+     * a prefix identifying the plugin, matching the decoration of cloud's other error messages.
+     *
+     * @param decorator The decorator to apply
+     */
+    public void decorate(@NonNull UnaryOperator<Component> decorator) {
+        this.decorator = decorator;
+    }
+
+    PluginLogger logger() {
+        return this.logger;
+    }
+
+    /**
+     * Logs a summary of each fingerprint whose summary interval has elapsed, as well as the number of
+     * reports dropped since the last flush. Fingerprints which have expired, or exceed the maximum
+     * retained, are forgotten.
+     *
+     * @param now The current value of {@link System#nanoTime()}
+     */
+    void flush(long now) {
+        for(Occurrences occurrences : this.occurrences.values()) {
+            this.summarize(occurrences, now, false);
+            if(now - occurrences.seen.get() >= EXPIRY && occurrences.reported.get() == occurrences.count.get()) {
+                this.occurrences.remove(occurrences.fingerprint, occurrences);
+            }
+        }
+
+        final int excess = this.occurrences.size() - MAX_FINGERPRINTS;
+        if(excess > 0) {
+            final List<Occurrences> oldest = new ArrayList<>(this.occurrences.values());
+            oldest.sort(Comparator.comparingLong(occurrences -> occurrences.seen.get() - now));
+            for(Occurrences occurrences : oldest.subList(0, Math.min(excess, oldest.size()))) {
+                if(this.occurrences.remove(occurrences.fingerprint, occurrences)) {
+                    this.summarize(occurrences, now, true);
+                }
+            }
+        }
+
+        final long dropped = this.dropped.getAndSet(0);
+        if(dropped > 0) {
+            this.logger.warn(String.format("Dropped %d command error report(s), the report queue was full", dropped));
+        }
+    }
+
+    private void summarize(Occurrences occurrences, long now, boolean force) {
+        final long last = occurrences.summarized.get();
+        if(!force && (now - last < SUMMARY_INTERVAL || !occurrences.summarized.compareAndSet(last, now))) {
+            return;
+        }
+
+        final long total = occurrences.count.get();
+        final long unreported = total - occurrences.reported.getAndSet(total);
+        if(unreported > 0) {
+            this.logger.warn(String.format(
+                    "Command '%s' failed %d more time(s) with %s since last reported (%d total)",
+                    occurrences.fingerprint.command(),
+                    unreported,
+                    occurrences.fingerprint.type(),
+                    total
+            ));
+        }
+    }
+
+    private static final class Occurrences {
+
+        private final ExceptionFingerprint fingerprint;
+        private final Component message;
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong reported = new AtomicLong(1);
+        private final AtomicLong summarized = new AtomicLong(System.nanoTime());
+        private final AtomicLong seen = new AtomicLong(System.nanoTime());
+
+        private Occurrences(ExceptionFingerprint fingerprint, Throwable cause) {
+            this.fingerprint = fingerprint;
+
+            final StringWriter writer = new StringWriter();
+            cause.printStackTrace(new PrintWriter(writer));
+
+            final String trace = writer.toString().replace("\t", Strings.repeat(" ", 4));
+            final Component hover = Component.text(trace).append(Component.newline()).append(
+                    Component.text("Click to copy!").color(NamedTextColor.YELLOW)
+            );
+
+            this.message = Component.text("An internal error occurred while attempting to perform this command...")
+                    .color(NamedTextColor.RED)
+                    .hoverEvent(HoverEvent.hoverEvent(HoverEvent.Action.SHOW_TEXT, hover))
+                    .clickEvent(ClickEvent.copyToClipboard(trace));
+        }
+
+    }
+}
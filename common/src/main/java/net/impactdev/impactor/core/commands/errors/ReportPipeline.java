@@ -0,0 +1,148 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.errors;
+
+import net.impactdev.impactor.api.logging.PluginLogger;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Formats and writes error reports on a single background thread, shared by every command manager,
+ * such that a failing command releases the thread it executed on as soon as it has been recorded.
+ *
+ * <p>Reports are handed off through a bounded, lock-free queue. When the queue is full, further
+ * reports are rejected rather than blocking the submitting thread, and are expected to be counted
+ * as dropped by their submitter. The capacity defaults to 256 reports, and may be configured via the
+ * {@code impactor.commands.errors.queue-capacity} system property.</p>
+ *
+ * <p>Alongside queued reports, the reporter thread periodically flushes the summaries of each
+ * registered {@link ExceptionReporter}. Reporters are only weakly held, so a reporter whose command
+ * manager is no longer in use is released, and stops being flushed.</p>
+ *
+ * <p>A report or flush which fails is logged through the logger of the reporter it belongs to.</p>
+ */
+public final class ReportPipeline {
+
+    private static final int CAPACITY = Math.max(1, Integer.getInteger("impactor.commands.errors.queue-capacity", 256));
+    private static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final Queue<Report> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final List<WeakReference<ExceptionReporter>> reporters = new CopyOnWriteArrayList<>();
+    private final Thread worker;
+
+    private ReportPipeline() {
+        this.worker = new Thread(this::run, "Impactor Command Error Reporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public static ReportPipeline instance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Submits a report to be run on the reporter thread.
+     *
+     * @param owner The logger to report a failure of the task to
+     * @param report The task formatting and writing the report
+     * @return True if the report was queued, or false if the queue is full
+     */
+    public boolean submit(@NonNull PluginLogger owner, @NonNull Runnable report) {
+        if(this.size.incrementAndGet() > CAPACITY) {
+            this.size.decrementAndGet();
+            return false;
+        }
+
+        this.queue.offer(new Report(owner, report));
+        LockSupport.unpark(this.worker);
+        return true;
+    }
+
+    void watch(@NonNull ExceptionReporter reporter) {
+        this.reporters.add(new WeakReference<>(reporter));
+    }
+
+    private void run() {
+        long flushed = System.nanoTime();
+        while(true) {
+            Report report;
+            while((report = this.queue.poll()) != null) {
+                this.size.decrementAndGet();
+                this.attempt(report.owner, report.task);
+            }
+
+            final long now = System.nanoTime();
+            if(now - flushed >= FLUSH_INTERVAL) {
+                flushed = now;
+                for(WeakReference<ExceptionReporter> reference : this.reporters) {
+                    final ExceptionReporter reporter = reference.get();
+                    if(reporter == null) {
+                        this.reporters.remove(reference);
+                        continue;
+                    }
+
+                    this.attempt(reporter.logger(), () -> reporter.flush(now));
+                }
+            }
+
+            LockSupport.parkNanos(this, FLUSH_INTERVAL);
+        }
+    }
+
+    private void attempt(PluginLogger owner, Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            ExceptionPrinter.print(owner, e);
+        }
+    }
+
+    private static final class Report {
+
+        private final PluginLogger owner;
+        private final Runnable task;
+
+        private Report(PluginLogger owner, Runnable task) {
+            this.owner = owner;
+            this.task = task;
+        }
+    }
+
+    private static final class Holder {
+        private static final ReportPipeline INSTANCE = new ReportPipeline();
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import net.impactdev.impactor.api.commands.CommandSource;
+import net.impactdev.impactor.api.platform.players.PlatformPlayer;
+import net.impactdev.impactor.api.platform.sources.PlatformSource;
+
+/**
+ * Emits Java Flight Recorder events describing command processing.
+ *
+ * <p>Whether any recording is running is tracked through a {@link FlightRecorderListener}, and cached, such
+ * that while no recording is active, each emitter costs a single volatile read, and no event is ever
+ * allocated. Once a recording is active, each event is still subject to its own enabled state and
+ * thresholds as configured by the recording.</p>
+ */
+public final class CommandEvents {
+
+    private static volatile boolean recording;
+
+    static {
+        try {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recorderInitialized(FlightRecorder recorder) {
+                    update();
+                }
+
+                @Override
+                public void recordingStateChanged(Recording recording) {
+                    update();
+                }
+            });
+        } catch (Throwable ignored) {
+            // Flight Recorder is unavailable on this runtime, so no events will ever be emitted
+        }
+    }
+
+    private CommandEvents() {}
+
+    public static void parsed(String root, CommandSource source, String plugin, long queueWait, long parsing, long permission) {
+        if(!recording) {
+            return;
+        }
+
+        final CommandParsedEvent event = new CommandParsedEvent();
+        if(event.shouldCommit()) {
+            describe(event, root, source, plugin);
+            event.queueWait = queueWait;
+            event.parsing = parsing;
+            event.permission = permission;
+            event.commit();
+        }
+    }
+
+    public static void denied(String root, CommandSource source, String plugin, String permission) {
+        if(!recording) {
+            return;
+        }
+
+        final CommandPermissionDeniedEvent event = new CommandPermissionDeniedEvent();
+        if(event.shouldCommit()) {
+            describe(event, root, source, plugin);
+            event.permission = permission;
+            event.commit();
+        }
+    }
+
+    public static void executed(String root, CommandSource source, String plugin, long execution) {
+        if(!recording) {
+            return;
+        }
+
+        final CommandExecutedEvent event = new CommandExecutedEvent();
+        if(event.shouldCommit()) {
+            describe(event, root, source, plugin);
+            event.execution = execution;
+            event.commit();
+        }
+    }
+
+    public static void failed(String root, CommandSource source, String plugin, Throwable exception, long execution) {
+        if(!recording) {
+            return;
+        }
+
+        final CommandFailedEvent event = new CommandFailedEvent();
+        if(event.shouldCommit()) {
+            describe(event, root, source, plugin);
+            event.exception = exception.getClass().getName();
+            event.execution = execution;
+            event.commit();
+        }
+    }
+
+    public static void suggestions(String root, CommandSource source, String plugin, int suggestions, long duration) {
+        if(!recording) {
+            return;
+        }
+
+        final CommandSuggestionsEvent event = new CommandSuggestionsEvent();
+        if(event.shouldCommit()) {
+            describe(event, root, source, plugin);
+            event.suggestions = suggestions;
+            event.duration = duration;
+            event.commit();
+        }
+    }
+
+    private static void describe(CommandEvent event, String root, CommandSource source, String plugin) {
+        event.root = root;
+        event.source = kind(source);
+        event.plugin = plugin;
+    }
+
+    private static String kind(CommandSource source) {
+        if(source.source() instanceof PlatformPlayer) {
+            return "player";
+        }
+
+        return source.uuid().equals(PlatformSource.SERVER_UUID) ? "console" : "entity";
+    }
+
+    private static void update() {
+        boolean active = false;
+        if(FlightRecorder.isInitialized()) {
+            for(Recording candidate : FlightRecorder.getFlightRecorder().getRecordings()) {
+                if(candidate.getState() == RecordingState.RUNNING) {
+                    active = true;
+                    break;
+                }
+            }
+        }
+
+        recording = active;
+    }
+
+}
@@ -26,30 +26,47 @@
 package net.impactdev.impactor.core.commands.manager;
 
 import cloud.commandframework.CommandManager;
+import cloud.commandframework.CommandTree;
+import cloud.commandframework.annotations.AnnotationParser;
 import cloud.commandframework.context.CommandContext;
+import cloud.commandframework.exceptions.ArgumentParseException;
 import cloud.commandframework.exceptions.CommandExecutionException;
-import cloud.commandframework.execution.AsynchronousCommandExecutionCoordinator;
+import cloud.commandframework.execution.postprocessor.CommandPostprocessingContext;
 import cloud.commandframework.extra.confirmation.CommandConfirmationManager;
-import com.google.common.base.Strings;
+import cloud.commandframework.meta.CommandMeta;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.impactdev.impactor.api.commands.CommandSource;
 import net.impactdev.impactor.api.commands.ImpactorCommandManager;
+import net.impactdev.impactor.api.commands.confirmations.CommandConfirmations;
+import net.impactdev.impactor.api.commands.metrics.CommandMetrics;
+import net.impactdev.impactor.api.commands.registration.CommandRegistrar;
 import net.impactdev.impactor.api.logging.PluginLogger;
 import net.impactdev.impactor.api.platform.plugins.PluginMetadata;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import net.impactdev.impactor.core.commands.confirmations.ConfirmationStore;
+import net.impactdev.impactor.core.commands.confirmations.LegacyConfirmationManager;
+import net.impactdev.impactor.core.commands.errors.ExceptionReporter;
+import net.impactdev.impactor.core.commands.metrics.MetricsRegistry;
+import net.impactdev.impactor.core.commands.metrics.PrometheusExporter;
+import net.impactdev.impactor.core.commands.metrics.TimedExecutionCoordinator;
+import net.impactdev.impactor.core.commands.profiler.CommandProfiler;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.event.ClickEvent;
-import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
-import net.kyori.adventure.text.format.Style;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public abstract class AbstractCommandManager<S> implements ImpactorCommandManager {
 
@@ -65,25 +82,38 @@ public abstract class AbstractCommandManager<S> implements ImpactorCommandManage
     protected final PluginLogger logger;
 
     private final CommandManager<CommandSource> manager;
-    private final CommandConfirmationManager<CommandSource> confirmations;
+    private final ConfirmationStore confirmations;
+    private final LegacyConfirmationManager legacy;
+    private final ExceptionReporter errors;
+    private final MetricsRegistry metrics;
+    private final TimedExecutionCoordinator coordinator;
+    private @Nullable AnnotationParser<CommandSource> annotations;
+
+    /**
+     * Generated command registrars, indexed by the class loader they were discovered through. Discovery
+     * is performed once per class loader, as a plugin will typically register several command instances
+     * from the same loader. These are held by the manager, rather than statically, so that the loaders
+     * and registrars of a plugin are released alongside its manager.
+     */
+    private final Map<ClassLoader, Map<Class<?>, CommandRegistrar<?>>> registrars = new ConcurrentHashMap<>();
 
     public AbstractCommandManager(PluginMetadata metadata, PluginLogger logger) {
         this.metadata = metadata;
         this.logger = logger;
+        this.metrics = new MetricsRegistry(metadata);
+        PrometheusExporter.initialize(logger);
 
-        CommandCoordinator coordinator = AsynchronousCommandExecutionCoordinator.<CommandSource>newBuilder()
-                .withExecutor(EXECUTOR)
-                .withAsynchronousParsing()
-                .build()
-                ::apply;
+        TimedCoordinatorFactory coordinator = new TimedCoordinatorFactory(this.metrics, logger);
 
         this.manager = this.create(coordinator);
-        this.confirmations = new CommandConfirmationManager<>(
-                30L,
-                TimeUnit.SECONDS,
-                context -> context.getCommandContext().getSender().sendMessage(Component.text("Click to confirm action!").color(NamedTextColor.YELLOW)),
-                sender -> sender.sendMessage(Component.text("No pending confirmations available...").color(NamedTextColor.RED))
-        );
+        this.coordinator = coordinator.created();
+
+        Duration timeout = Duration.ofSeconds(30);
+        Consumer<CommandPostprocessingContext<CommandSource>> notifier = context -> context.getCommandContext().getSender().sendMessage(Component.text("Click to confirm action!").color(NamedTextColor.YELLOW));
+        Consumer<CommandSource> missing = sender -> sender.sendMessage(Component.text("No pending confirmations available...").color(NamedTextColor.RED));
+        this.confirmations = new ConfirmationStore(timeout, notifier, missing);
+        this.legacy = new LegacyConfirmationManager(this.confirmations, timeout.toMillis(), notifier, missing);
+        this.errors = new ExceptionReporter(logger, this::printException);
 
     }
 
@@ -98,10 +128,80 @@ public abstract class AbstractCommandManager<S> implements ImpactorCommandManage
     }
 
     @Override
+    @Deprecated
     public CommandConfirmationManager<CommandSource> confirmations() {
+        return this.legacy;
+    }
+
+    @Override
+    public CommandConfirmations pendingConfirmations() {
         return this.confirmations;
     }
 
+    @Override
+    public CommandMetrics metrics() {
+        return this.metrics;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void register(Object instance) {
+        final CommandRegistrar<Object> registrar = (CommandRegistrar<Object>) this.registrars(instance.getClass().getClassLoader())
+                .get(instance.getClass());
+        if(registrar != null) {
+            registrar.register(this.manager, instance);
+            return;
+        }
+
+        this.annotations().parse(instance);
+    }
+
+    private synchronized AnnotationParser<CommandSource> annotations() {
+        if(this.annotations == null) {
+            this.annotations = new AnnotationParser<>(
+                    this.manager,
+                    CommandSource.class,
+                    parameters -> CommandMeta.simple().with(this.manager.createDefaultCommandMeta()).build()
+            );
+        }
+
+        return this.annotations;
+    }
+
+    private Map<Class<?>, CommandRegistrar<?>> registrars(@Nullable ClassLoader loader) {
+        if(loader == null) {
+            return Collections.emptyMap();
+        }
+
+        return this.registrars.computeIfAbsent(loader, key -> {
+            final Map<Class<?>, CommandRegistrar<?>> result = new HashMap<>();
+            for(CommandRegistrar<?> registrar : ServiceLoader.load(CommandRegistrar.class, key)) {
+                result.put(registrar.type(), registrar);
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Provides the coordinator executing this manager's commands. The coordinator is created alongside the
+     * platform command manager, and is therefore only available once {@link #create(CommandCoordinator)}
+     * has returned, such as from within {@link #initialize$child()}.
+     */
+    protected TimedExecutionCoordinator coordinator() {
+        return this.coordinator;
+    }
+
+    /**
+     * Sets the decorator applied to the message sent to the source of a command which failed internally,
+     * so it is presented alongside the same decoration as the platform's other error messages.
+     *
+     * @param decorator The decorator to apply
+     */
+    protected void decorateErrors(UnaryOperator<Component> decorator) {
+        this.errors.decorate(decorator);
+    }
+
     protected abstract CommandManager<CommandSource> create(CommandCoordinator coordinator);
 
     protected abstract SourceTranslator<S, CommandSource> impactor();
@@ -113,64 +213,99 @@ public abstract class AbstractCommandManager<S> implements ImpactorCommandManage
     protected void initialize() {
         try {
             this.manager.registerExceptionHandler(CommandExecutionException.class, (source, e) -> {
-                Component detail = Component.text("An internal error occurred while attempting to perform this command...");
-                detail = detail.color(NamedTextColor.RED);
-
-                Style style = detail.style();
-
-                final StringWriter writer = new StringWriter();
-                e.getCause().printStackTrace(new PrintWriter(writer));
-
-                final String trace = writer.toString().replace("\t", Strings.repeat(" ", 4));
-                final Component result = Component.text(trace).append(Component.newline()).append(
-                        Component.text("Click to copy!").color(NamedTextColor.YELLOW)
-                );
+                // Syntax exceptions raised during execution, such as a deferred selector matching no
+                // targets, are the fault of the input rather than the command, so are presented in the
+                // same manner as a failure to parse the input
+                if(e.getCause() instanceof CommandSyntaxException) {
+                    this.manager.handleException(
+                            source,
+                            ArgumentParseException.class,
+                            new ArgumentParseException(e.getCause(), source, Collections.emptyList()),
+                            (sender, parse) -> sender.sendMessage(Component.text(parse.getCause().getMessage()).color(NamedTextColor.RED))
+                    );
+                    return;
+                }
 
-                style = style.hoverEvent(HoverEvent.hoverEvent(HoverEvent.Action.SHOW_TEXT, result))
-                        .clickEvent(ClickEvent.copyToClipboard(trace));
-
-                detail = detail.style(style);
-                source.sendMessage(detail);
-
-                this.printException(e);
+                source.sendMessage(this.errors.record(e));
             });
 
-            this.confirmations.registerConfirmationProcessor(this.manager);
+            this.confirmations.register(this.manager);
+            if(CommandProfiler.OWNER.equals(this.metadata.id())) {
+                CommandProfiler.register(this.manager);
+            }
+
             this.initialize$child();
         } catch (Exception e) {
             ExceptionPrinter.print(this.logger, e);
         }
     }
 
-    private void printException(CommandExecutionException exception) {
-        PrettyPrinter printer = new PrettyPrinter(80).wrapTo(80);
-        printer.title("Command Execution Exception")
-                .add("An unexpected error was encountered during command processing. This error")
-                .consume(p -> {
-                    String contextual = exception.getCommandContext() != null ? "alongside its relative context" : "";
-                    p.add(contextual + " will now be displayed.");
-                })
-                .hr('-')
-                .consume(p -> {
-                    final @Nullable CommandContext<?> context = exception.getCommandContext();
-                    if (context != null) {
-                        p.add("Command Input: %s", context.getRawInputJoined());
-                        p.add("During Suggestions: %b", context.isSuggestions());
-
-                        p.add("Context:");
-                        context.asMap()
-                                .entrySet()
-                                .stream()
-                                .filter(x -> true)
-                                .forEach(entry -> p.add("  %s: %s",
-                                        entry.getKey(),
-                                        entry.getValue().toString()));
-                        p.newline();
-                    }
-                })
-                .add("Encountered Exception Stacktrace:")
-                .add(exception);
-
-        printer.log(this.logger, PrettyPrinter.Level.ERROR);
+    /**
+     * Captures the state of a failed command required to report it, and provides the task which formats
+     * and logs that report. The context is copied here, on the thread the command failed on, as its values
+     * may continue to change after the command has failed. Its values are only rendered once the report
+     * is run on the reporter thread.
+     */
+    private Runnable printException(CommandExecutionException exception) {
+        final @Nullable CommandContext<?> context = exception.getCommandContext();
+        final String input = context != null ? context.getRawInputJoined() : null;
+        final boolean suggestions = context != null && context.isSuggestions();
+        final Map<String, Object> values = context != null ? new LinkedHashMap<>(context.asMap()) : Collections.emptyMap();
+
+        return () -> {
+            PrettyPrinter printer = new PrettyPrinter(80).wrapTo(80);
+            printer.title("Command Execution Exception")
+                    .add("An unexpected error was encountered during command processing. This error")
+                    .consume(p -> {
+                        String contextual = input != null ? "alongside its relative context" : "";
+                        p.add(contextual + " will now be displayed.");
+                    })
+                    .hr('-')
+                    .consume(p -> {
+                        if (input != null) {
+                            p.add("Command Input: %s", input);
+                            p.add("During Suggestions: %b", suggestions);
+
+                            p.add("Context:");
+                            values.forEach((key, value) -> p.add("  %s: %s", key, value));
+                            p.newline();
+                        }
+                    })
+                    .add("Encountered Exception Stacktrace:")
+                    .add(exception);
+
+            printer.log(this.logger, PrettyPrinter.Level.ERROR);
+        };
+    }
+
+    /**
+     * Creates the timed coordinator requested by the platform command manager, retaining it so it may be
+     * provided to the platform once the manager has been created.
+     */
+    private static final class TimedCoordinatorFactory implements CommandCoordinator {
+
+        private final MetricsRegistry metrics;
+        private final PluginLogger logger;
+        private @Nullable TimedExecutionCoordinator created;
+
+        private TimedCoordinatorFactory(MetricsRegistry metrics, PluginLogger logger) {
+            this.metrics = metrics;
+            this.logger = logger;
+        }
+
+        @Override
+        public TimedExecutionCoordinator apply(CommandTree<CommandSource> tree) {
+            TimedExecutionCoordinator coordinator = new TimedExecutionCoordinator(tree, EXECUTOR, this.metrics, this.logger);
+            this.created = coordinator;
+            return coordinator;
+        }
+
+        private TimedExecutionCoordinator created() {
+            if(this.created == null) {
+                throw new IllegalStateException("The platform command manager was not created with the provided coordinator");
+            }
+
+            return this.created;
+        }
     }
 }
@@ -0,0 +1,114 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the bytes allocated by the current thread, through the per-thread allocation counters of the
+ * HotSpot {@link com.sun.management.ThreadMXBean}. Allocations are only tracked while something demands
+ * them, such as a running profile, as reading the counter is not free.
+ *
+ * <p>Allocations may instead be tracked at all times by setting the {@code impactor.commands.metrics.allocations}
+ * system property to true. Whenever allocations are tracked, any single command allocating more than the
+ * threshold configured by {@code impactor.commands.metrics.allocation-threshold-mb}, defaulting to 100 MB,
+ * is logged as a warning.</p>
+ */
+public final class Allocations {
+
+    private static final boolean ALWAYS = Boolean.getBoolean("impactor.commands.metrics.allocations");
+    private static final long THRESHOLD = Math.max(1, Long.getLong("impactor.commands.metrics.allocation-threshold-mb", 100)) * 1024 * 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    private static final AtomicInteger DEMAND = new AtomicInteger();
+
+    private Allocations() {}
+
+    /**
+     * Indicates whether allocations should currently be measured.
+     *
+     * @return True if allocations are being tracked
+     */
+    public static boolean tracking() {
+        return THREADS != null && (ALWAYS || DEMAND.get() > 0);
+    }
+
+    /**
+     * Indicates whether the given allocation by a single command is large enough to warrant a warning.
+     *
+     * @param bytes The bytes allocated by a command
+     * @return True if the allocation exceeds the configured threshold
+     */
+    public static boolean excessive(long bytes) {
+        return bytes > THRESHOLD;
+    }
+
+    /**
+     * Provides the total number of bytes allocated by the current thread over its lifetime.
+     *
+     * @return The bytes allocated by this thread, or -1 if unsupported
+     */
+    public static long current() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Begins tracking allocations, until a matching call to {@link #release()}.
+     */
+    public static void demand() {
+        DEMAND.incrementAndGet();
+    }
+
+    /**
+     * Releases a demand made through {@link #demand()}.
+     */
+    public static void release() {
+        DEMAND.decrementAndGet();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if(threads instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+                if(hotspot.isThreadAllocatedMemorySupported()) {
+                    if(!hotspot.isThreadAllocatedMemoryEnabled()) {
+                        hotspot.setThreadAllocatedMemoryEnabled(true);
+                    }
+
+                    return hotspot;
+                }
+            }
+        } catch (Throwable ignored) {
+            // Allocation counters are unavailable on this runtime
+        }
+
+        return null;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.metrics;
+
+import net.impactdev.impactor.api.commands.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram, with log-linear buckets. Every power of two is split into 16 linear buckets,
+ * bounding the error of any reported value to 1/16th of its magnitude, while values below 16 are counted
+ * exactly. Values beyond 2^41, roughly 36 minutes in nanoseconds, are counted within the final bucket.
+ * Although it serves as a {@link LatencyHistogram}, it is equally suited to values of any other unit, such
+ * as the bytes allocated by a command.
+ *
+ * <p>Recording a value is a single atomic increment of its bucket, alongside the striped count and total,
+ * so recorders never block one another. Reads are performed against the live counters, and as such may
+ * observe a recording partially applied.</p>
+ */
+public final class LogLinearHistogram implements LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a single latency. Negative latencies, as may be produced by a clock adjustment, are
+     * recorded as zero.
+     *
+     * @param nanos The latency, in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+
+        this.buckets.incrementAndGet(index(value));
+        this.count.increment();
+        this.total.add(value);
+
+        long max = this.max.get();
+        while(value > max && !this.max.compareAndSet(max, value)) {
+            max = this.max.get();
+        }
+    }
+
+    @Override
+    public long count() {
+        return this.count.sum();
+    }
+
+    @Override
+    public long total() {
+        return this.total.sum();
+    }
+
+    @Override
+    public long max() {
+        return this.max.get();
+    }
+
+    @Override
+    public long percentile(final double percentile) {
+        return percentile(this.counts(), percentile, this.max());
+    }
+
+    /**
+     * Captures the current state of this histogram. Snapshots may be compared against one another to
+     * find the latencies recorded between them.
+     *
+     * @return An immutable copy of this histogram
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this.counts(), this.count(), this.total(), this.max());
+    }
+
+    private long[] counts() {
+        final long[] counts = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets.get(i);
+        }
+
+        return counts;
+    }
+
+    private static long percentile(final long[] counts, final double percentile, final long max) {
+        long count = 0;
+        for(long bucket : counts) {
+            count += bucket;
+        }
+
+        if(count == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if(seen >= target) {
+                return Math.min(upper(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    static int index(final long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int magnitude = Math.min(MAX_MAGNITUDE, 63 - Long.numberOfLeadingZeros(value));
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        if(magnitude == MAX_MAGNITUDE && value >>> shift >= 2 * SUB_BUCKETS) {
+            return BUCKETS - 1;
+        }
+
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upper(final int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * An immutable copy of a {@link LogLinearHistogram} at a particular moment.
+     */
+    public static final class Snapshot implements LatencyHistogram {
+
+        private final long[] counts;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        private Snapshot(final long[] counts, final long count, final long total, final long max) {
+            this.counts = counts;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        @Override
+        public long count() {
+            return this.count;
+        }
+
+        @Override
+        public long total() {
+            return this.total;
+        }
+
+        @Override
+        public long max() {
+            return this.max;
+        }
+
+        @Override
+        public long percentile(final double percentile) {
+            return LogLinearHistogram.percentile(this.counts, percentile, this.max);
+        }
+
+        /**
+         * Counts the latencies recorded at or below the given latency. Latencies are only known to the
+         * precision of their bucket, so a bucket is only counted once its entire range is covered.
+         *
+         * @param nanos The latency, in nanoseconds
+         * @return The number of latencies recorded at or below the given latency
+         */
+        public long countAtOrBelow(final long nanos) {
+            long count = 0;
+            for(int i = 0; i < BUCKETS && upper(i) <= nanos; i++) {
+                count += this.counts[i];
+            }
+
+            return count;
+        }
+
+        /**
+         * Provides the latencies recorded since the given, earlier, snapshot of the same histogram. As the
+         * exact maximum of those latencies is not retained, it is reported as the upper bound of the highest
+         * bucket recorded to in that time.
+         *
+         * @param earlier A snapshot taken before this one
+         * @return The latencies recorded between both snapshots
+         */
+        public Snapshot since(final Snapshot earlier) {
+            final long[] counts = new long[BUCKETS];
+            long max = 0;
+            for(int i = 0; i < BUCKETS; i++) {
+                counts[i] = Math.max(0, this.counts[i] - earlier.counts[i]);
+                if(counts[i] > 0) {
+                    max = Math.min(upper(i), this.max);
+                }
+            }
+
+            return new Snapshot(counts, Math.max(0, this.count - earlier.count), Math.max(0, this.total - earlier.total), max);
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.metrics;
+
+import net.impactdev.impactor.api.commands.metrics.CommandMetrics;
+import net.impactdev.impactor.api.platform.plugins.PluginMetadata;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency of each phase of command processing for a single command manager, keyed by the
+ * root literal of each command.
+ */
+public final class MetricsRegistry implements CommandMetrics {
+
+    private static final Set<MetricsRegistry> REGISTRIES = ConcurrentHashMap.newKeySet();
+    private static final LogLinearHistogram EMPTY = new LogLinearHistogram();
+    private static final long WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    private final PluginMetadata plugin;
+    private final Map<String, Measurements> measurements = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LongAdder>> failures = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public MetricsRegistry(PluginMetadata plugin) {
+        this.plugin = plugin;
+        REGISTRIES.add(this);
+    }
+
+    /**
+     * Provides the registries of every command manager created, such that commands may be compared
+     * across plugins.
+     *
+     * @return Every metrics registry
+     */
+    public static Collection<MetricsRegistry> registries() {
+        return Collections.unmodifiableSet(REGISTRIES);
+    }
+
+    @Override
+    public PluginMetadata plugin() {
+        return this.plugin;
+    }
+
+    @Override
+    public Set<String> roots() {
+        return Collections.unmodifiableSet(this.measurements.keySet());
+    }
+
+    @Override
+    public LogLinearHistogram latency(String root, Phase phase) {
+        final Measurements measurements = this.measurements.get(root);
+        return measurements != null ? measurements.latencies[phase.ordinal()] : EMPTY;
+    }
+
+    @Override
+    public LogLinearHistogram suggestions(String root) {
+        final Measurements measurements = this.measurements.get(root);
+        return measurements != null ? measurements.suggestions : EMPTY;
+    }
+
+    @Override
+    public long allocated(String root) {
+        final Measurements measurements = this.measurements.get(root);
+        return measurements != null ? measurements.allocated.sum() : 0;
+    }
+
+    /**
+     * Records the latency of a phase of processing a command.
+     *
+     * @param root The root literal of the command
+     * @param phase The phase being recorded
+     * @param nanos The latency of the phase, in nanoseconds
+     */
+    public void record(String root, Phase phase, long nanos) {
+        this.measurements(root).latencies[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records the time taken to compute suggestions for a command.
+     *
+     * @param root The root literal of the command
+     * @param nanos The time taken, in nanoseconds
+     */
+    public void suggested(String root, long nanos) {
+        this.measurements(root).suggestions.record(nanos);
+    }
+
+    /**
+     * Records the number of permission checks made while parsing a command.
+     *
+     * @param root The root literal of the command
+     * @param checks The number of checks made
+     */
+    public void permissionChecks(String root, long checks) {
+        this.measurements(root).permissionChecks.add(checks);
+    }
+
+    /**
+     * Provides the number of permission checks made while parsing commands under the given root literal.
+     *
+     * @param root The root literal of the commands
+     * @return The number of permission checks made
+     */
+    public long permissionChecks(String root) {
+        final Measurements measurements = this.measurements.get(root);
+        return measurements != null ? measurements.permissionChecks.sum() : 0;
+    }
+
+    /**
+     * Records a command failing with the given type of exception. Exceptions raised by a command's handler
+     * are recorded by the type of their cause, rather than the execution exception wrapping them.
+     *
+     * @param root The root literal of the command, or null if the command is unknown
+     * @param type The type of exception raised
+     */
+    public void failed(@Nullable String root, Class<? extends Throwable> type) {
+        this.failures.computeIfAbsent(root != null ? root : "", key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(type.getName(), key -> new LongAdder())
+                .increment();
+    }
+
+    /**
+     * Provides the number of failures recorded for each root literal, by the fully qualified name of the
+     * type of exception raised. Failures of unknown commands are recorded against an empty root.
+     *
+     * @return The failures of each command, by exception type
+     */
+    public Map<String, Map<String, Long>> failures() {
+        final Map<String, Map<String, Long>> failures = new HashMap<>();
+        this.failures.forEach((root, types) -> {
+            final Map<String, Long> counts = new HashMap<>();
+            types.forEach((type, count) -> counts.put(type, count.sum()));
+            failures.put(root, counts);
+        });
+
+        return failures;
+    }
+
+    /**
+     * Indicates how many commands are waiting for a command executor thread to become available.
+     *
+     * @return The number of queued commands
+     */
+    public int queued() {
+        return this.queued.get();
+    }
+
+    void enqueued() {
+        this.queued.incrementAndGet();
+    }
+
+    void dequeued() {
+        this.queued.decrementAndGet();
+    }
+
+    /**
+     * Records the bytes allocated by a command's handler.
+     *
+     * @param root The root literal of the command
+     * @param bytes The bytes allocated
+     * @return True if the allocation is excessive, and no other excessive allocation by a command under
+     * the same root has been reported within the last minute
+     */
+    public boolean allocated(String root, long bytes) {
+        final Measurements measurements = this.measurements(root);
+        measurements.allocated.add(bytes);
+        measurements.allocations.record(bytes);
+
+        if(!Allocations.excessive(bytes)) {
+            return false;
+        }
+
+        final long now = System.nanoTime();
+        final long warned = measurements.warned.get();
+        return (warned == 0 || now - warned >= WARNING_INTERVAL) && measurements.warned.compareAndSet(warned, now);
+    }
+
+    @Override
+    public LogLinearHistogram allocations(String root) {
+        final Measurements measurements = this.measurements.get(root);
+        return measurements != null ? measurements.allocations : EMPTY;
+    }
+
+    /**
+     * Captures the current latency of each command's execution, alongside the bytes each has allocated.
+     *
+     * @return A snapshot of every command measured by this registry
+     */
+    public Map<String, Sample> sample() {
+        final Map<String, Sample> samples = new HashMap<>();
+        this.measurements.forEach((root, measurements) -> samples.put(root, new Sample(
+                measurements.latencies[Phase.EXECUTION.ordinal()].snapshot(),
+                measurements.allocated.sum()
+        )));
+
+        return samples;
+    }
+
+    private Measurements measurements(String root) {
+        final Measurements measurements = this.measurements.get(root);
+        return measurements != null ? measurements : this.measurements.computeIfAbsent(root, key -> new Measurements());
+    }
+
+    private static final class Measurements {
+
+        private final LogLinearHistogram[] latencies = new LogLinearHistogram[Phase.values().length];
+        private final LogLinearHistogram suggestions = new LogLinearHistogram();
+        private final LongAdder permissionChecks = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+        private final LogLinearHistogram allocations = new LogLinearHistogram();
+        private final AtomicLong warned = new AtomicLong();
+
+        private Measurements() {
+            for(int i = 0; i < this.latencies.length; i++) {
+                this.latencies[i] = new LogLinearHistogram();
+            }
+        }
+    }
+
+    /**
+     * The execution latency and allocations of a command at a particular moment.
+     */
+    public static final class Sample {
+
+        private final LogLinearHistogram.Snapshot execution;
+        private final long allocated;
+
+        private Sample(LogLinearHistogram.Snapshot execution, long allocated) {
+            this.execution = execution;
+            this.allocated = allocated;
+        }
+
+        public LogLinearHistogram.Snapshot execution() {
+            return this.execution;
+        }
+
+        public long allocated() {
+            return this.allocated;
+        }
+
+        /**
+         * Provides the executions and allocations made since the given, earlier, sample of the same command.
+         *
+         * @param earlier A sample taken before this one, or null if the command had not yet been measured
+         * @return The activity of the command between both samples
+         */
+        public Sample since(@Nullable Sample earlier) {
+            if(earlier == null) {
+                return this;
+            }
+
+            return new Sample(this.execution.since(earlier.execution), Math.max(0, this.allocated - earlier.allocated));
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.metrics;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Accumulates the time spent on permission checks made by the current thread while a command is parsed.
+ * Permission checks are made throughout parsing, as each node of the command tree is visited, so their
+ * cost can only be separated from parsing by measuring each check as it is made.
+ *
+ * <p>Checks made outside of command parsing, such as when building the command tree sent to a player,
+ * are performed without any measurement.</p>
+ */
+public final class PermissionTimer {
+
+    static final int ELAPSED_NANOS = 0;
+    static final int CHECKS = 1;
+
+    private static final ThreadLocal<long[]> ELAPSED = new ThreadLocal<>();
+
+    private PermissionTimer() {}
+
+    /**
+     * Performs a permission check, adding its duration to the command being parsed by this thread.
+     *
+     * @param check The permission check
+     * @return The result of the permission check
+     */
+    public static boolean time(BooleanSupplier check) {
+        final long[] elapsed = ELAPSED.get();
+        if(elapsed == null) {
+            return check.getAsBoolean();
+        }
+
+        final long start = System.nanoTime();
+        try {
+            return check.getAsBoolean();
+        } finally {
+            elapsed[ELAPSED_NANOS] += System.nanoTime() - start;
+            elapsed[CHECKS]++;
+        }
+    }
+
+    /**
+     * Begins measuring permission checks made by this thread.
+     *
+     * @return The time spent on checks, indexed by {@link #ELAPSED_NANOS}, and the number of checks made,
+     * indexed by {@link #CHECKS}, which are populated until {@link #end()} is called
+     */
+    static long[] begin() {
+        final long[] elapsed = new long[2];
+        ELAPSED.set(elapsed);
+
+        return elapsed;
+    }
+
+    static void end() {
+        ELAPSED.remove();
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpServer;
+import net.impactdev.impactor.api.commands.metrics.CommandMetrics.Phase;
+import net.impactdev.impactor.api.logging.PluginLogger;
+import net.impactdev.impactor.api.utility.ExceptionPrinter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exports the metrics of every command manager in the Prometheus text exposition format, without relying on
+ * any external service. Export is disabled unless configured through system properties:
+ *
+ * <ul>
+ *     <li>{@code impactor.commands.metrics.file}: A file to periodically rewrite with the current metrics,
+ *     such as for the textfile collector of a node exporter</li>
+ *     <li>{@code impactor.commands.metrics.interval}: The number of seconds between rewrites of the file,
+ *     defaulting to 15</li>
+ *     <li>{@code impactor.commands.metrics.port}: A port to serve the current metrics from, at
+ *     {@code /metrics}. The listener is only ever bound to the loopback address.</li>
+ * </ul>
+ */
+public final class PrometheusExporter {
+
+    private static final String FILE = System.getProperty("impactor.commands.metrics.file");
+    private static final long INTERVAL = Math.max(1, Long.getLong("impactor.commands.metrics.interval", 15));
+    private static final Integer PORT = Integer.getInteger("impactor.commands.metrics.port");
+
+    private static final double[] BOUNDARIES = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final AtomicBoolean INITIALIZED = new AtomicBoolean();
+
+    private PrometheusExporter() {}
+
+    /**
+     * Begins exporting metrics, if configured to do so. Only the first call has any effect.
+     *
+     * @param logger The logger to report export failures to
+     */
+    public static void initialize(PluginLogger logger) {
+        if((FILE == null && PORT == null) || !INITIALIZED.compareAndSet(false, true)) {
+            return;
+        }
+
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("Impactor Command Metrics Exporter")
+                        .setDaemon(true)
+                        .build()
+        );
+
+        if(FILE != null) {
+            final Path path = Paths.get(FILE);
+            executor.scheduleWithFixedDelay(() -> {
+                try {
+                    write(path);
+                } catch (Exception e) {
+                    ExceptionPrinter.print(logger, e);
+                }
+            }, INTERVAL, INTERVAL, TimeUnit.SECONDS);
+        }
+
+        if(PORT != null) {
+            try {
+                final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+                server.createContext("/metrics", exchange -> {
+                    final byte[] body = render().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try(OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                });
+                server.setExecutor(executor);
+                server.start();
+            } catch (IOException e) {
+                ExceptionPrinter.print(logger, e);
+            }
+        }
+    }
+
+    /**
+     * Renders the current metrics of every command manager.
+     *
+     * @return The metrics, in the Prometheus text exposition format
+     */
+    public static String render() {
+        final StringBuilder out = new StringBuilder();
+
+        family(out, "impactor_commands_executions_total", "counter", "Commands whose handler was executed.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            for(String root : registry.roots()) {
+                sample(out, "impactor_commands_executions_total", registry.latency(root, Phase.EXECUTION).count(), "plugin", registry.plugin().id(), "root", root);
+            }
+        }
+
+        family(out, "impactor_commands_failures_total", "counter", "Commands which failed, by the class of exception raised. Failures raised by a command's handler are counted by their cause.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            for(Map.Entry<String, Map<String, Long>> root : registry.failures().entrySet()) {
+                for(Map.Entry<String, Long> type : root.getValue().entrySet()) {
+                    sample(out, "impactor_commands_failures_total", type.getValue(), "plugin", registry.plugin().id(), "root", root.getKey(), "exception", type.getKey());
+                }
+            }
+        }
+
+        family(out, "impactor_commands_queue_depth", "gauge", "Commands waiting for a command executor thread.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            sample(out, "impactor_commands_queue_depth", registry.queued(), "plugin", registry.plugin().id());
+        }
+
+        family(out, "impactor_commands_permission_checks_total", "counter", "Permission checks made while parsing commands.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            for(String root : registry.roots()) {
+                sample(out, "impactor_commands_permission_checks_total", registry.permissionChecks(root), "plugin", registry.plugin().id(), "root", root);
+            }
+        }
+
+        family(out, "impactor_commands_allocated_bytes_total", "counter", "Bytes allocated by command handlers while allocations were tracked.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            for(String root : registry.roots()) {
+                sample(out, "impactor_commands_allocated_bytes_total", registry.allocated(root), "plugin", registry.plugin().id(), "root", root);
+            }
+        }
+
+        family(out, "impactor_commands_latency_seconds", "histogram", "Latency of each phase of command processing.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            for(String root : registry.roots()) {
+                for(Phase phase : Phase.values()) {
+                    histogram(out, "impactor_commands_latency_seconds", registry.latency(root, phase), "plugin", registry.plugin().id(), "root", root, "phase", phase.name().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+
+        family(out, "impactor_commands_suggestion_latency_seconds", "histogram", "Time taken to compute suggestions for command input.");
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            for(String root : registry.roots()) {
+                histogram(out, "impactor_commands_suggestion_latency_seconds", registry.suggestions(root), "plugin", registry.plugin().id(), "root", root);
+            }
+        }
+
+        return out.toString();
+    }
+
+    private static void write(Path path) throws IOException {
+        final Path parent = path.toAbsolutePath().getParent();
+        if(parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        // Written aside and moved into place, so scrapers never observe a partially written file
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, render().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, LogLinearHistogram latency, String... labels) {
+        final LogLinearHistogram.Snapshot snapshot = latency.snapshot();
+
+        // Counted from the buckets themselves, such that every bucket, including +Inf, is consistent
+        final long count = snapshot.countAtOrBelow(Long.MAX_VALUE);
+
+        final String[] bucket = new String[labels.length + 2];
+        System.arraycopy(labels, 0, bucket, 0, labels.length);
+        bucket[labels.length] = "le";
+
+        for(double boundary : BOUNDARIES) {
+            bucket[labels.length + 1] = Double.toString(boundary);
+            sample(out, name + "_bucket", snapshot.countAtOrBelow((long) (boundary * 1_000_000_000L)), bucket);
+        }
+
+        bucket[labels.length + 1] = "+Inf";
+        sample(out, name + "_bucket", count, bucket);
+        sample(out, name + "_sum", snapshot.total() / 1_000_000_000.0, labels);
+        sample(out, name + "_count", count, labels);
+    }
+
+    private static void sample(StringBuilder out, String name, Number value, String... labels) {
+        out.append(name);
+        if(labels.length > 0) {
+            out.append('{');
+            for(int i = 0; i < labels.length; i += 2) {
+                if(i > 0) {
+                    out.append(',');
+                }
+
+                out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            out.append('}');
+        }
+
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+}
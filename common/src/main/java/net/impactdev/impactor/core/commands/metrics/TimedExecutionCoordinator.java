@@ -0,0 +1,236 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.metrics;
+
+import cloud.commandframework.Command;
+import cloud.commandframework.CommandTree;
+import cloud.commandframework.arguments.CommandArgument;
+import cloud.commandframework.context.CommandContext;
+import cloud.commandframework.exceptions.CommandExecutionException;
+import cloud.commandframework.exceptions.NoPermissionException;
+import cloud.commandframework.execution.CommandExecutionCoordinator;
+import cloud.commandframework.execution.CommandResult;
+import cloud.commandframework.services.State;
+import cloud.commandframework.types.tuples.Pair;
+import net.impactdev.impactor.api.commands.CommandSource;
+import net.impactdev.impactor.api.commands.metrics.CommandMetrics.Phase;
+import net.impactdev.impactor.api.logging.PluginLogger;
+import net.impactdev.impactor.core.commands.jfr.CommandEvents;
+import net.impactdev.impactor.core.commands.watchdog.CommandWatchdog;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Parses and executes commands asynchronously, in the same manner as cloud's asynchronous coordinator with
+ * asynchronous parsing enabled, while recording the latency of each phase of processing to a
+ * {@link MetricsRegistry}. Each step is also reported as a Java Flight Recorder event, through
+ * {@link CommandEvents}.
+ *
+ * <p>Latencies are recorded against the root literal the input was addressed to, so long as that literal is
+ * known to the command tree. Input for unknown commands is not recorded, as it would otherwise allow any
+ * source to create metrics for arbitrary literals.</p>
+ *
+ * <p>While {@link Allocations#tracking() allocations are tracked}, the bytes allocated by each command's
+ * handler are recorded as well, and commands allocating excessively are reported as warnings.</p>
+ */
+public final class TimedExecutionCoordinator extends CommandExecutionCoordinator<CommandSource> {
+
+    /**
+     * The context key under which preprocessors may store the time, in nanoseconds, they spent preparing
+     * the command context.
+     */
+    public static final String PREPROCESSING = "impactor:preprocessing_nanos";
+
+    private final Executor executor;
+    private final MetricsRegistry metrics;
+    private final PluginLogger logger;
+    private final String plugin;
+
+    public TimedExecutionCoordinator(CommandTree<CommandSource> tree, Executor executor, MetricsRegistry metrics, PluginLogger logger) {
+        super(tree);
+        this.executor = executor;
+        this.metrics = metrics;
+        this.logger = logger;
+        this.plugin = metrics.plugin().id();
+    }
+
+    @Override
+    public CompletableFuture<CommandResult<CommandSource>> coordinateExecution(
+            CommandContext<CommandSource> context,
+            Queue<String> input
+    ) {
+        final long submitted = System.nanoTime();
+        final @Nullable String root = this.root(input.peek());
+
+        this.metrics.enqueued();
+        return CompletableFuture.supplyAsync(() -> {
+            final long started = System.nanoTime();
+            this.metrics.dequeued();
+            final CommandSource sender = context.getSender();
+            this.record(root, Phase.QUEUE_WAIT, started - submitted);
+            context.<Long>getOptional(PREPROCESSING).ifPresent(nanos -> this.record(root, Phase.PREPROCESSING, nanos));
+
+            final Pair<Command<CommandSource>, Exception> result;
+            final long[] checks = PermissionTimer.begin();
+            final long permission;
+            try {
+                result = this.getCommandTree().parse(context, input);
+            } finally {
+                PermissionTimer.end();
+                permission = checks[PermissionTimer.ELAPSED_NANOS];
+                this.record(root, Phase.PERMISSION, permission);
+                this.record(root, Phase.PARSING, System.nanoTime() - started - permission);
+                if(root != null) {
+                    this.metrics.permissionChecks(root, checks[PermissionTimer.CHECKS]);
+                }
+            }
+
+            if(result.getSecond() != null) {
+                this.metrics.failed(root, result.getSecond().getClass());
+                if(root != null && result.getSecond() instanceof NoPermissionException) {
+                    CommandEvents.denied(root, sender, this.plugin, ((NoPermissionException) result.getSecond()).getMissingPermission());
+                }
+
+                throw new CompletionException(result.getSecond());
+            }
+
+            if(root != null) {
+                CommandEvents.parsed(root, sender, this.plugin, started - submitted, System.nanoTime() - started - permission, permission);
+            }
+
+            final Command<CommandSource> command = result.getFirst();
+            if(this.getCommandTree().getCommandManager().postprocessContext(context, command) == State.ACCEPTED) {
+                final long allocating = root != null && Allocations.tracking() ? Allocations.current() : -1;
+                final @Nullable CommandWatchdog.Watch watch = CommandWatchdog.watch(context.getRawInputJoined(), sender, this.plugin, this.logger);
+                final long executing = System.nanoTime();
+                try {
+                    command.getCommandExecutionHandler().executeFuture(context).get();
+                    if(root != null) {
+                        CommandEvents.executed(root, sender, this.plugin, System.nanoTime() - executing);
+                    }
+                } catch (ExecutionException e) {
+                    this.failed(root, sender, cause(e.getCause()), executing);
+                    if(e.getCause() instanceof CommandExecutionException) {
+                        throw (CommandExecutionException) e.getCause();
+                    }
+
+                    throw new CommandExecutionException(e.getCause(), context);
+                } catch (CommandExecutionException e) {
+                    this.failed(root, sender, cause(e), executing);
+                    throw e;
+                } catch (Exception e) {
+                    this.failed(root, sender, e, executing);
+                    throw new CommandExecutionException(e, context);
+                } finally {
+                    if(watch != null) {
+                        watch.close();
+                    }
+
+                    this.record(root, Phase.EXECUTION, System.nanoTime() - executing);
+                    if(allocating >= 0) {
+                        final long allocated = Allocations.current() - allocating;
+                        if(this.metrics.allocated(root, allocated)) {
+                            this.logger.warn(String.format(
+                                    "Command '%s' allocated %.1f MB while executing for %s (plugin: %s)",
+                                    context.getRawInputJoined(),
+                                    allocated / (1024.0 * 1024.0),
+                                    sender.uuid(),
+                                    this.plugin
+                            ));
+                        }
+                    }
+                }
+            }
+
+            return new CommandResult<>(context);
+        }, this.executor);
+    }
+
+    /**
+     * Computes suggestions for the given input, recording how long they took to compute.
+     *
+     * @param sender The source requesting suggestions
+     * @param input The partial input to suggest for
+     * @param suggestions Computes the suggestions
+     * @return The computed suggestions
+     */
+    public List<String> suggest(CommandSource sender, String input, Supplier<List<String>> suggestions) {
+        final long start = System.nanoTime();
+        final List<String> result = suggestions.get();
+
+        final int separator = input.indexOf(' ');
+        final @Nullable String root = this.root(separator == -1 ? input : input.substring(0, separator));
+        if(root != null) {
+            this.metrics.suggested(root, System.nanoTime() - start);
+            CommandEvents.suggestions(root, sender, this.plugin, result.size(), System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    private void failed(@Nullable String root, CommandSource sender, Throwable exception, long executing) {
+        this.metrics.failed(root, exception.getClass());
+        if(root != null) {
+            CommandEvents.failed(root, sender, this.plugin, exception, System.nanoTime() - executing);
+        }
+    }
+
+    /**
+     * Unwraps the exception raised by a command's handler from any execution exceptions wrapping it, so
+     * failures are attributed to what actually went wrong.
+     */
+    private static Throwable cause(Throwable exception) {
+        Throwable cause = exception;
+        while(cause instanceof CommandExecutionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        return cause;
+    }
+
+    private @Nullable String root(@Nullable String literal) {
+        if(literal == null) {
+            return null;
+        }
+
+        final CommandTree.Node<CommandArgument<CommandSource, ?>> node = this.getCommandTree().getNamedNode(literal);
+        return node != null && node.getValue() != null ? node.getValue().getName() : null;
+    }
+
+    private void record(@Nullable String root, Phase phase, long nanos) {
+        if(root != null) {
+            this.metrics.record(root, phase, nanos);
+        }
+    }
+
+}
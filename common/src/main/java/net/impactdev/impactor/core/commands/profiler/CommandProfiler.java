@@ -0,0 +1,264 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.profiler;
+
+import cloud.commandframework.CommandManager;
+import cloud.commandframework.arguments.standard.IntegerArgument;
+import cloud.commandframework.context.CommandContext;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.impactdev.impactor.api.commands.CommandSource;
+import net.impactdev.impactor.api.platform.plugins.PluginMetadata;
+import net.impactdev.impactor.core.commands.metrics.Allocations;
+import net.impactdev.impactor.core.commands.metrics.MetricsRegistry;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Profiles every command registered through Impactor over a window of time, via
+ * {@code /impactor commands profile [seconds] [--file]}.
+ *
+ * <p>A profile compares a sample of every manager's metrics taken as the window opens against a sample taken
+ * as it closes, so profiling adds nothing to the cost of executing commands beyond tracking their allocations
+ * for the duration of the window. The commands which took the most time in total are then reported,
+ * alongside their 99th percentile latency and allocation rate, grouped by the plugin which registered them.</p>
+ */
+public final class CommandProfiler {
+
+    /** The ID of the plugin whose command manager hosts the profile command */
+    public static final String OWNER = "impactor";
+
+    private static final String PERMISSION = "impactor.commands.profile";
+    private static final int DEFAULT_WINDOW = 30;
+    private static final int MAX_WINDOW = 600;
+    private static final int TOP = 10;
+
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Impactor Command Profiler")
+                    .setDaemon(true)
+                    .build()
+    );
+
+    private static final AtomicReference<Profile> ACTIVE = new AtomicReference<>();
+
+    private CommandProfiler() {}
+
+    public static void register(CommandManager<CommandSource> manager) {
+        manager.command(manager.commandBuilder(OWNER)
+                .literal("commands")
+                .literal("profile")
+                .permission(PERMISSION)
+                .argument(IntegerArgument.<CommandSource>newBuilder("seconds")
+                        .withMin(1)
+                        .withMax(MAX_WINDOW)
+                        .asOptionalWithDefault(String.valueOf(DEFAULT_WINDOW))
+                )
+                .flag(manager.flagBuilder("file"))
+                .handler(CommandProfiler::start)
+        );
+    }
+
+    private static void start(CommandContext<CommandSource> context) {
+        final CommandSource source = context.getSender();
+        final int seconds = context.get("seconds");
+        final Profile profile = new Profile(source, seconds, context.flags().isPresent("file"), sample());
+
+        if(!ACTIVE.compareAndSet(null, profile)) {
+            source.sendMessage(Component.text("A command profile is already running, please wait for it to complete.").color(NamedTextColor.RED));
+            return;
+        }
+
+        Allocations.demand();
+        source.sendMessage(Component.text(String.format("Profiling all commands for %d seconds...", seconds)).color(NamedTextColor.GRAY));
+        SCHEDULER.schedule(() -> finish(profile), seconds, TimeUnit.SECONDS);
+    }
+
+    private static void finish(Profile profile) {
+        try {
+            final List<Row> rows = profile.compare(sample());
+            if(profile.file) {
+                final Path path = write(profile, rows);
+                profile.source.sendMessage(Component.text("Command profile saved to " + path.toAbsolutePath()).color(NamedTextColor.GREEN));
+            } else {
+                report(profile, rows);
+            }
+        } catch (Exception e) {
+            profile.source.sendMessage(Component.text("Failed to complete command profile: " + e.getMessage()).color(NamedTextColor.RED));
+        } finally {
+            Allocations.release();
+            ACTIVE.set(null);
+        }
+    }
+
+    private static Map<MetricsRegistry, Map<String, MetricsRegistry.Sample>> sample() {
+        final Map<MetricsRegistry, Map<String, MetricsRegistry.Sample>> samples = new HashMap<>();
+        for(MetricsRegistry registry : MetricsRegistry.registries()) {
+            samples.put(registry, registry.sample());
+        }
+
+        return samples;
+    }
+
+    private static void report(Profile profile, List<Row> rows) {
+        final CommandSource source = profile.source;
+        if(rows.isEmpty()) {
+            source.sendMessage(Component.text(String.format("No commands were executed in the last %d seconds.", profile.seconds)).color(NamedTextColor.YELLOW));
+            return;
+        }
+
+        source.sendMessage(Component.text(String.format("Top commands by total time over %d seconds:", profile.seconds)).color(NamedTextColor.YELLOW));
+        for(Map.Entry<String, List<Row>> plugin : group(rows).entrySet()) {
+            final long total = plugin.getValue().stream().mapToLong(row -> row.sample.execution().total()).sum();
+            source.sendMessage(Component.text(plugin.getKey()).color(NamedTextColor.AQUA)
+                    .append(Component.text(String.format(" (%.2f ms)", millis(total))).color(NamedTextColor.GRAY)));
+
+            for(Row row : plugin.getValue()) {
+                source.sendMessage(Component.text("  /" + row.root).color(NamedTextColor.WHITE)
+                        .append(Component.text(" " + row.describe(profile.seconds)).color(NamedTextColor.GRAY)));
+            }
+        }
+    }
+
+    private static Path write(Profile profile, List<Row> rows) throws IOException {
+        final Path directory = Paths.get("impactor", "profiles");
+        Files.createDirectories(directory);
+
+        final Path path = directory.resolve("commands-" + FILE_NAME.format(LocalDateTime.now()) + ".txt");
+        try(BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(String.format("Command profile over %d seconds", profile.seconds));
+            writer.newLine();
+
+            for(Map.Entry<String, List<Row>> plugin : group(rows).entrySet()) {
+                writer.newLine();
+                writer.write(plugin.getKey());
+                writer.newLine();
+
+                for(Row row : plugin.getValue()) {
+                    writer.write("  /" + row.root + " " + row.describe(profile.seconds));
+                    writer.newLine();
+                }
+            }
+        }
+
+        return path;
+    }
+
+    private static Map<String, List<Row>> group(List<Row> rows) {
+        final Map<String, List<Row>> grouped = new LinkedHashMap<>();
+        for(Row row : rows) {
+            grouped.computeIfAbsent(row.plugin, key -> new ArrayList<>()).add(row);
+        }
+
+        return grouped;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Profile {
+
+        private final CommandSource source;
+        private final int seconds;
+        private final boolean file;
+        private final Map<MetricsRegistry, Map<String, MetricsRegistry.Sample>> start;
+
+        private Profile(CommandSource source, int seconds, boolean file, Map<MetricsRegistry, Map<String, MetricsRegistry.Sample>> start) {
+            this.source = source;
+            this.seconds = seconds;
+            this.file = file;
+            this.start = start;
+        }
+
+        /**
+         * Compares the given samples against those taken when the profile began, producing the commands
+         * which took the most time in total over the profile.
+         */
+        private List<Row> compare(Map<MetricsRegistry, Map<String, MetricsRegistry.Sample>> end) {
+            final List<Row> rows = new ArrayList<>();
+            end.forEach((registry, samples) -> {
+                final Map<String, MetricsRegistry.Sample> before = this.start.getOrDefault(registry, new HashMap<>());
+                samples.forEach((root, sample) -> {
+                    final MetricsRegistry.Sample difference = sample.since(before.get(root));
+                    if(difference.execution().count() > 0) {
+                        rows.add(new Row(name(registry.plugin()), root, difference));
+                    }
+                });
+            });
+
+            rows.sort(Comparator.comparingLong((Row row) -> row.sample.execution().total()).reversed());
+            return rows.size() > TOP ? rows.subList(0, TOP) : rows;
+        }
+
+        private static String name(PluginMetadata plugin) {
+            return plugin.name().orElse(plugin.id());
+        }
+    }
+
+    private static final class Row {
+
+        private final String plugin;
+        private final String root;
+        private final MetricsRegistry.Sample sample;
+
+        private Row(String plugin, String root, MetricsRegistry.Sample sample) {
+            this.plugin = plugin;
+            this.root = root;
+            this.sample = sample;
+        }
+
+        private String describe(int seconds) {
+            return String.format(
+                    "- %d runs, %.2f ms total, %.2f ms p99, %.2f MB/s allocated",
+                    this.sample.execution().count(),
+                    millis(this.sample.execution().total()),
+                    millis(this.sample.execution().percentile(99)),
+                    this.sample.allocated() / (1024.0 * 1024.0) / seconds
+            );
+        }
+    }
+
+}
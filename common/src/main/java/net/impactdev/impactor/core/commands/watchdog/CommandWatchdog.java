@@ -0,0 +1,237 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.core.commands.watchdog;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.impactdev.impactor.api.commands.CommandSource;
+import net.impactdev.impactor.api.logging.PluginLogger;
+import net.impactdev.impactor.api.utility.printing.PrettyPrinter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the stacks of commands which run for longer than expected, so their cause can be found without
+ * attaching a profiler to the server. The watchdog is only enabled when the
+ * {@code impactor.commands.watchdog.threshold-ms} system property is set to a positive number of milliseconds.
+ *
+ * <p>Once a command has been executing for longer than that threshold, a single daemon thread captures the
+ * executing thread's stack every {@code impactor.commands.watchdog.interval-ms} milliseconds, defaulting to 10,
+ * for up to {@code impactor.commands.watchdog.max-samples} samples. When the command completes, the frames
+ * sampled most often are logged alongside the command input and its source, and every sampled stack is written
+ * in the folded format accepted by flame graph tools to {@code impactor/watchdog}.</p>
+ *
+ * <p>Only the thread executing the command's handler is sampled. Handlers which hand their work to another
+ * thread will therefore be sampled as waiting on that work.</p>
+ */
+public final class CommandWatchdog {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(Long.getLong("impactor.commands.watchdog.threshold-ms", 0));
+    private static final long INTERVAL = Math.max(1, Long.getLong("impactor.commands.watchdog.interval-ms", 10));
+    private static final int MAX_SAMPLES = Math.max(1, Integer.getInteger("impactor.commands.watchdog.max-samples", 6000));
+    private static final int HOTTEST = 15;
+
+    private static final Path DIRECTORY = Paths.get("impactor", "watchdog");
+    private static final DateTimeFormatter FILE_NAME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS");
+
+    private static final Set<Watch> WATCHED = ConcurrentHashMap.newKeySet();
+    private static final @Nullable ScheduledExecutorService SAMPLER = THRESHOLD > 0 ? start() : null;
+
+    private CommandWatchdog() {}
+
+    /**
+     * Begins watching a command about to be executed on the current thread. The returned watch must be
+     * closed once the command completes, whether it succeeded or not.
+     *
+     * @param input The raw input of the command
+     * @param source The source executing the command
+     * @param plugin The ID of the plugin which registered the command
+     * @param logger The logger to report a slow command to
+     * @return A watch over the command, or null if the watchdog is disabled
+     */
+    public static @Nullable Watch watch(String input, CommandSource source, String plugin, PluginLogger logger) {
+        if(SAMPLER == null) {
+            return null;
+        }
+
+        final Watch watch = new Watch(Thread.currentThread(), input, source.uuid(), plugin, logger);
+        WATCHED.add(watch);
+        return watch;
+    }
+
+    private static ScheduledExecutorService start() {
+        final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("Impactor Command Watchdog")
+                        .setDaemon(true)
+                        .build()
+        );
+
+        sampler.scheduleAtFixedRate(CommandWatchdog::sample, INTERVAL, INTERVAL, TimeUnit.MILLISECONDS);
+        return sampler;
+    }
+
+    private static void sample() {
+        final long now = System.nanoTime();
+        for(Watch watch : WATCHED) {
+            if(now - watch.started >= THRESHOLD && watch.samples < MAX_SAMPLES) {
+                watch.sample();
+            }
+        }
+    }
+
+    public static final class Watch {
+
+        private final Thread thread;
+        private final String input;
+        private final UUID source;
+        private final String plugin;
+        private final PluginLogger logger;
+        private final long started = System.nanoTime();
+
+        private volatile boolean finished;
+
+        // Only accessed by the watchdog thread
+        private final Map<String, Integer> stacks = new HashMap<>();
+        private final Map<String, Integer> frames = new HashMap<>();
+        private int samples;
+
+        private Watch(Thread thread, String input, UUID source, String plugin, PluginLogger logger) {
+            this.thread = thread;
+            this.input = input;
+            this.source = source;
+            this.plugin = plugin;
+            this.logger = logger;
+        }
+
+        /**
+         * Marks the command as complete, reporting it if it ran for longer than the threshold.
+         */
+        public void close() {
+            final long elapsed = System.nanoTime() - this.started;
+            this.finished = true;
+            WATCHED.remove(this);
+
+            if(elapsed >= THRESHOLD && SAMPLER != null) {
+                SAMPLER.execute(() -> this.report(elapsed));
+            }
+        }
+
+        private void sample() {
+            final StackTraceElement[] trace = this.thread.getStackTrace();
+
+            // The thread may have moved on to other work while its stack was being captured
+            if(this.finished || trace.length == 0) {
+                return;
+            }
+
+            final StringBuilder folded = new StringBuilder();
+            for(int i = trace.length - 1; i >= 0; i--) {
+                folded.append(trace[i].getClassName()).append('.').append(trace[i].getMethodName());
+                if(i > 0) {
+                    folded.append(';');
+                }
+            }
+
+            this.stacks.merge(folded.toString(), 1, Integer::sum);
+            this.frames.merge(trace[0].toString(), 1, Integer::sum);
+            this.samples++;
+        }
+
+        private void report(long elapsed) {
+            if(this.samples == 0) {
+                return;
+            }
+
+            final @Nullable Path written = this.write();
+            final List<Map.Entry<String, Integer>> hottest = new ArrayList<>(this.frames.entrySet());
+            hottest.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+            PrettyPrinter printer = new PrettyPrinter(80).wrapTo(80);
+            printer.title("Slow Command Report")
+                    .add("A command ran for longer than the watchdog threshold, and was sampled while")
+                    .add("it executed. The frames it was found in most often will now be displayed.")
+                    .hr('-')
+                    .add("Command Input: %s", this.input)
+                    .add("Source: %s", this.source)
+                    .add("Plugin: %s", this.plugin)
+                    .add("Duration: %d ms", TimeUnit.NANOSECONDS.toMillis(elapsed))
+                    .add("Samples: %d (every %d ms)", this.samples, INTERVAL)
+                    .consume(p -> {
+                        p.newline();
+                        p.add("Hottest Frames:");
+                        for(Map.Entry<String, Integer> frame : hottest.subList(0, Math.min(HOTTEST, hottest.size()))) {
+                            p.add("  %5.1f%%  %s", frame.getValue() * 100.0 / this.samples, frame.getKey());
+                        }
+                    })
+                    .consume(p -> {
+                        if(written != null) {
+                            p.newline();
+                            p.add("Folded Stacks: %s", written.toAbsolutePath());
+                        }
+                    });
+
+            printer.log(this.logger, PrettyPrinter.Level.WARNING);
+        }
+
+        private @Nullable Path write() {
+            final Path target = DIRECTORY.resolve(String.format("%s-%s.folded", this.plugin, LocalDateTime.now().format(FILE_NAME)));
+            try {
+                Files.createDirectories(DIRECTORY);
+                try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                    for(Map.Entry<String, Integer> stack : this.stacks.entrySet()) {
+                        writer.write(stack.getKey());
+                        writer.write(' ');
+                        writer.write(String.valueOf(stack.getValue()));
+                        writer.newLine();
+                    }
+                }
+
+                return target;
+            } catch (IOException e) {
+                this.logger.warn(String.format("Failed to write folded stacks for slow command '%s': %s", this.input, e.getMessage()));
+                return null;
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ architectury {
 dependencies {
     modImplementation("net.fabricmc:fabric-loader:${rootProject.property("fabric-loader")}")
     modImplementation(fabricApi.module("fabric-lifecycle-events-v1", rootProject.property("fabric-api").toString()))
+    modImplementation(fabricApi.module("fabric-networking-api-v1", rootProject.property("fabric-api").toString()))
 
     api(project(":common"))
     modApi("cloud.commandframework:cloud-fabric:1.7.1") {
@@ -28,6 +28,7 @@ package net.impactdev.impactor.fabric.commands;
 import cloud.commandframework.CommandManager;
 import cloud.commandframework.fabric.FabricServerCommandManager;
 import cloud.commandframework.minecraft.extras.MinecraftExceptionHandler;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.impactdev.impactor.api.commands.CommandSource;
 import net.impactdev.impactor.api.logging.PluginLogger;
 import net.impactdev.impactor.api.platform.players.PlatformPlayer;
@@ -43,11 +44,18 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.UnaryOperator;
+
 import static net.kyori.adventure.text.Component.space;
 import static net.kyori.adventure.text.Component.text;
 
 public final class FabricCommandManager extends AbstractCommandManager<CommandSourceStack> {
 
+    private static final Component NO_PERMISSION = text(
+            "I'm sorry, but you do not have permission to perform this command. \n"
+                    + "Please contact the server administrators if you believe that this is in error."
+    ).color(NamedTextColor.RED);
+
     private BrigadierMapper mapper;
 
     public FabricCommandManager(PluginMetadata metadata, PluginLogger logger) {
@@ -95,22 +103,28 @@ public final class FabricCommandManager extends AbstractCommandManager<CommandSo
 
     @Override
     protected void initialize$child() {
+        // The decorating prefix only depends on the plugin, so it is built once and reused for every message
+        final @Nullable Component prefix = metadata.name().map(Component::text)
+                .map(name -> name.color(NamedTextColor.YELLOW)
+                        .append(space())
+                        .append(text("»")).color(NamedTextColor.GRAY)
+                        .append(space())
+                )
+                .orElse(null);
+        final UnaryOperator<Component> decorator = message -> prefix != null ? prefix.append(message) : message;
+
+        // Internal errors are reported by the manager itself, rather than cloud's execution handler
+        this.decorateErrors(decorator);
+
         new MinecraftExceptionHandler<CommandSource>()
                 .withArgumentParsingHandler()
                 .withInvalidSenderHandler()
                 .withInvalidSyntaxHandler()
-                .withNoPermissionHandler()
-                .withCommandExecutionHandler()
-                .withDecorator(message -> metadata.name().map(Component::text)
-                        .map(prefix -> prefix.color(NamedTextColor.YELLOW)
-                                .append(space())
-                                .append(text("»")).color(NamedTextColor.GRAY)
-                                .append(space())
-                                .append(message)
-                        )
-                        .map(c -> (Component) c)
-                        .orElse(message)
-                )
+                .withHandler(MinecraftExceptionHandler.ExceptionType.NO_PERMISSION, e -> NO_PERMISSION)
+                .withDecorator(decorator)
                 .apply(this.delegate(), source -> source);
+
+        // Pending confirmations can no longer be confirmed once their source has left
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> this.pendingConfirmations().invalidate(handler.getPlayer().getUUID()));
     }
 }
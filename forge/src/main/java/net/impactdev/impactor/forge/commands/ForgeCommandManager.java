@@ -41,13 +41,22 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.function.UnaryOperator;
+
 import static net.kyori.adventure.text.Component.space;
 import static net.kyori.adventure.text.Component.text;
 
 public class ForgeCommandManager extends AbstractCommandManager<CommandSourceStack> {
 
+    private static final Component NO_PERMISSION = text(
+            "I'm sorry, but you do not have permission to perform this command. \n"
+                    + "Please contact the server administrators if you believe that this is in error."
+    ).color(NamedTextColor.RED);
+
     private BrigadierMapper mapper;
 
     public ForgeCommandManager(PluginMetadata metadata, PluginLogger logger) {
@@ -95,23 +104,32 @@ public class ForgeCommandManager extends AbstractCommandManager<CommandSourceSta
 
     @Override
     protected void initialize$child() {
+        // Suggestions are computed by the platform manager, so it records their timings itself
+        ((ForgeServerCommandManager) this.delegate()).timings(this.coordinator());
+
+        // The decorating prefix only depends on the plugin, so it is built once and reused for every message
+        final @Nullable Component prefix = metadata.name().map(Component::text)
+                .map(name -> name.color(NamedTextColor.YELLOW)
+                        .append(space())
+                        .append(text("»")).color(NamedTextColor.GRAY)
+                        .append(space())
+                )
+                .orElse(null);
+        final UnaryOperator<Component> decorator = message -> prefix != null ? prefix.append(message) : message;
+
+        // Internal errors are reported by the manager itself, rather than cloud's execution handler
+        this.decorateErrors(decorator);
+
         new MinecraftExceptionHandler<CommandSource>()
                 .withArgumentParsingHandler()
                 .withInvalidSenderHandler()
                 .withInvalidSyntaxHandler()
-                .withNoPermissionHandler()
-                .withCommandExecutionHandler()
-                .withDecorator(message -> metadata.name().map(Component::text)
-                        .map(prefix -> prefix.color(NamedTextColor.YELLOW)
-                                .append(space())
-                                .append(text("»")).color(NamedTextColor.GRAY)
-                                .append(space())
-                                .append(message)
-                        )
-                        .map(c -> (Component) c)
-                        .orElse(message)
-                )
+                .withHandler(MinecraftExceptionHandler.ExceptionType.NO_PERMISSION, e -> NO_PERMISSION)
+                .withDecorator(decorator)
                 .apply(this.delegate(), source -> source);
+
+        // Pending confirmations can no longer be confirmed once their source has left
+        MinecraftForge.EVENT_BUS.addListener((PlayerEvent.PlayerLoggedOutEvent event) -> this.pendingConfirmations().invalidate(event.getEntity().getUUID()));
     }
 }
 
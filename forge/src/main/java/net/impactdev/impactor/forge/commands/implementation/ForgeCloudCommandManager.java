@@ -27,6 +27,7 @@ package net.impactdev.impactor.forge.commands.implementation;
 
 import cloud.commandframework.CommandManager;
 import cloud.commandframework.CommandTree;
+import cloud.commandframework.arguments.parser.ArgumentParser;
 import cloud.commandframework.arguments.standard.UUIDArgument;
 import cloud.commandframework.brigadier.BrigadierManagerHolder;
 import cloud.commandframework.brigadier.CloudBrigadierManager;
@@ -38,14 +39,14 @@ import cloud.commandframework.internal.CommandRegistrationHandler;
 import cloud.commandframework.meta.CommandMeta;
 import cloud.commandframework.meta.SimpleCommandMeta;
 import com.mojang.brigadier.arguments.ArgumentType;
-import com.mojang.serialization.Codec;
-import io.leangen.geantyref.GenericTypeReflector;
 import io.leangen.geantyref.TypeToken;
 import net.impactdev.impactor.forge.commands.implementation.arguments.RegistryEntryArgument;
 import net.impactdev.impactor.forge.commands.implementation.arguments.TeamArgument;
 import net.impactdev.impactor.forge.commands.implementation.arguments.parsers.ForgeArgumentParsers;
 import net.impactdev.impactor.forge.commands.implementation.captions.ForgeCaptionRegistry;
 import net.impactdev.impactor.forge.commands.implementation.data.MinecraftTime;
+import net.impactdev.impactor.forge.commands.implementation.internal.RegistryTypes;
+import net.impactdev.impactor.forge.commands.implementation.internal.SharedParsers;
 import net.minecraft.ChatFormatting;
 import net.minecraft.advancements.critereon.MinMaxBounds;
 import net.minecraft.commands.CommandBuildContext;
@@ -76,26 +77,16 @@ import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.scores.PlayerTeam;
 import net.minecraft.world.scores.criteria.ObjectiveCriteria;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.lang.reflect.WildcardType;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public abstract class ForgeCloudCommandManager<C, S extends SharedSuggestionProvider>
         extends CommandManager<C> implements BrigadierManagerHolder<C> {
 
-    private static final Logger LOGGER = LogManager.getLogger();
-    private static final int MOD_PUBLIC_STATIC_FINAL = Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL;
-
     private final Function<S, C> sourceMapper;
     private final Function<C, S> backwardSourceMapper;
     private final CloudBrigadierManager<C, S> brigadier;
@@ -139,6 +130,10 @@ public abstract class ForgeCloudCommandManager<C, S extends SharedSuggestionProv
         this.setCaptionRegistry(new ForgeCaptionRegistry<>());
         this.registerCommandPreProcessor(new ForgeCommandPreprocessor<>(this));
 
+        // Commands may be registered and unregistered at runtime, the registration handler will
+        // rebuild the affected subtree of the dispatcher on the server thread
+        this.setSetting(ManagerSettings.ALLOW_UNSAFE_REGISTRATION, true);
+
         ((ForgeCommandRegistrationHandler<C, S>) this.getCommandRegistrationHandler()).initialize(this);
 
     }
@@ -153,34 +148,28 @@ public abstract class ForgeCloudCommandManager<C, S extends SharedSuggestionProv
                 builder -> builder.toConstant(net.minecraft.commands.arguments.TeamArgument.team())
         );
 
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(PlayerTeam.class),
-                params -> new TeamArgument.TeamParser<>()
-        );
+        this.registerSharedParserSupplier(TypeToken.get(PlayerTeam.class), () -> new TeamArgument.TeamParser<C>());
 
         // Wrapped/Constant Brigadier types, native value type
-        this.registerConstantNativeParserSupplier(ChatFormatting.class, ColorArgument.color());
-        this.registerConstantNativeParserSupplier(CompoundTag.class, CompoundTagArgument.compoundTag());
-        this.registerConstantNativeParserSupplier(Tag.class, NbtTagArgument.nbtTag());
-        this.registerConstantNativeParserSupplier(NbtPathArgument.NbtPath.class, NbtPathArgument.nbtPath());
-        this.registerConstantNativeParserSupplier(ObjectiveCriteria.class, ObjectiveCriteriaArgument.criteria());
-        this.registerConstantNativeParserSupplier(OperationArgument.Operation.class, OperationArgument.operation());
-        this.registerConstantNativeParserSupplier(ParticleOptions.class, ParticleArgument.particle());
-        this.registerConstantNativeParserSupplier(AngleArgument.SingleAngle.class, AngleArgument.angle());
-        this.registerConstantNativeParserSupplier(new TypeToken<>() {}, SwizzleArgument.swizzle());
-        this.registerConstantNativeParserSupplier(ResourceLocation.class, ResourceLocationArgument.id());
-        this.registerConstantNativeParserSupplier(EntityAnchorArgument.Anchor.class, EntityAnchorArgument.anchor());
-        this.registerConstantNativeParserSupplier(MinMaxBounds.Ints.class, RangeArgument.intRange());
-        this.registerConstantNativeParserSupplier(MinMaxBounds.Doubles.class, RangeArgument.floatRange());
+        this.registerConstantNativeParserSupplier(ChatFormatting.class, ColorArgument::color);
+        this.registerConstantNativeParserSupplier(CompoundTag.class, CompoundTagArgument::compoundTag);
+        this.registerConstantNativeParserSupplier(Tag.class, NbtTagArgument::nbtTag);
+        this.registerConstantNativeParserSupplier(NbtPathArgument.NbtPath.class, NbtPathArgument::nbtPath);
+        this.registerConstantNativeParserSupplier(ObjectiveCriteria.class, ObjectiveCriteriaArgument::criteria);
+        this.registerConstantNativeParserSupplier(OperationArgument.Operation.class, OperationArgument::operation);
+        this.registerConstantNativeParserSupplier(ParticleOptions.class, ParticleArgument::particle);
+        this.registerConstantNativeParserSupplier(AngleArgument.SingleAngle.class, AngleArgument::angle);
+        this.registerConstantNativeParserSupplier(new TypeToken<>() {}, SwizzleArgument::swizzle);
+        this.registerConstantNativeParserSupplier(ResourceLocation.class, ResourceLocationArgument::id);
+        this.registerConstantNativeParserSupplier(EntityAnchorArgument.Anchor.class, EntityAnchorArgument::anchor);
+        this.registerConstantNativeParserSupplier(MinMaxBounds.Ints.class, RangeArgument::intRange);
+        this.registerConstantNativeParserSupplier(MinMaxBounds.Doubles.class, RangeArgument::floatRange);
         this.registerContextualNativeParserSupplier(ItemInput.class, ItemArgument::item);
         this.registerContextualNativeParserSupplier(BlockPredicateArgument.Result.class, BlockPredicateArgument::blockPredicate);
 
         // Wrapped/Constant Brigadier types, mapped value type
-        this.registerConstantNativeParserSupplier(MessageArgument.Message.class, MessageArgument.message());
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(MinecraftTime.class),
-                params -> ForgeArgumentParsers.time()
-        );
+        this.registerConstantNativeParserSupplier(MessageArgument.Message.class, MessageArgument::message);
+        this.registerSharedParserSupplier(TypeToken.get(MinecraftTime.class), ForgeArgumentParsers::time);
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -193,54 +182,12 @@ public abstract class ForgeCloudCommandManager<C, S extends SharedSuggestionProv
                 }
         );
 
-        /* Find all fields of RegistryKey<? extends Registry<?>> and register those */
-        /* This only works for vanilla registries really, we'll have to do other things for non-vanilla ones */
-        final Set<Class<?>> seenClasses = new HashSet<>();
-        /* Some registries have types that are too generic... we'll skip those for now.
-         * Eventually, these could be resolved by using ParserParameters in some way? */
-        seenClasses.add(ResourceLocation.class);
-        seenClasses.add(Codec.class);
-        for (final Field field : Registry.class.getDeclaredFields()) {
-            if ((field.getModifiers() & MOD_PUBLIC_STATIC_FINAL) != MOD_PUBLIC_STATIC_FINAL) {
-                continue;
-            }
-            if (!field.getType().equals(ResourceKey.class)) {
-                continue;
-            }
-
-            final Type generic = field.getGenericType(); /* RegistryKey<? extends Registry<?>> */
-            if (!(generic instanceof ParameterizedType)) {
-                continue;
-            }
-
-            Type registryType = ((ParameterizedType) generic).getActualTypeArguments()[0];
-            while (registryType instanceof WildcardType) {
-                registryType = ((WildcardType) registryType).getUpperBounds()[0];
-            }
-
-            if (!(registryType instanceof ParameterizedType)) { /* expected: Registry<V> */
-                continue;
-            }
-
-            final ResourceKey<?> key;
-            try {
-                key = (ResourceKey<?>) field.get(null);
-            } catch (final IllegalAccessException ex) {
-                LOGGER.warn("Failed to access value of registry key in field {} of type {}", field.getName(), generic, ex);
-                continue;
-            }
-
-            final Type valueType = ((ParameterizedType) registryType).getActualTypeArguments()[0];
-            if (seenClasses.contains(GenericTypeReflector.erase(valueType))) {
-                LOGGER.debug("Encountered duplicate type in registry {}: type {}", key, valueType);
-                continue;
-            }
-            seenClasses.add(GenericTypeReflector.erase(valueType));
-
-            /* and now, finally, we can register */
+        /* Registry discovery is shared by every manager, see RegistryTypes */
+        for (final Map.Entry<Type, ResourceKey<?>> entry : RegistryTypes.types().entrySet()) {
+            final ResourceKey<?> key = entry.getValue();
             this.getParserRegistry().registerParserSupplier(
-                    TypeToken.get(valueType),
-                    params -> new RegistryEntryArgument.Parser(key)
+                    TypeToken.get(entry.getKey()),
+                    params -> SharedParsers.shared(key, () -> new RegistryEntryArgument.Parser(key))
             );
         }
     }
@@ -249,11 +196,11 @@ public abstract class ForgeCloudCommandManager<C, S extends SharedSuggestionProv
      * Register a parser supplier for a brigadier type that has no options and whose output can be directly used.
      *
      * @param type     the Java type to map
-     * @param argument the Brigadier parser
+     * @param argument supplies the Brigadier parser, only invoked once the parser is first required
      * @param <T>      value type
      * @since 1.5.0
      */
-    final <T> void registerConstantNativeParserSupplier(final @NonNull Class<T> type, final @NonNull ArgumentType<T> argument) {
+    final <T> void registerConstantNativeParserSupplier(final @NonNull Class<T> type, final @NonNull Supplier<ArgumentType<T>> argument) {
         this.registerConstantNativeParserSupplier(TypeToken.get(type), argument);
     }
 
@@ -261,15 +208,31 @@ public abstract class ForgeCloudCommandManager<C, S extends SharedSuggestionProv
      * Register a parser supplier for a brigadier type that has no options and whose output can be directly used.
      *
      * @param type     the Java type to map
-     * @param argument the Brigadier parser
+     * @param argument supplies the Brigadier parser, only invoked once the parser is first required
      * @param <T>      value type
      * @since 1.5.0
      */
     final <T> void registerConstantNativeParserSupplier(
             final @NonNull TypeToken<T> type,
-            final @NonNull ArgumentType<T> argument
+            final @NonNull Supplier<ArgumentType<T>> argument
+    ) {
+        this.registerSharedParserSupplier(type, () -> new WrappedBrigadierParser<>(argument.get()));
+    }
+
+    /**
+     * Register a parser supplier for a type whose parser takes no parameters, and carries no state specific
+     * to this manager. The parser is created the first time any manager requires it, and is then shared
+     * by every manager.
+     *
+     * @param type   the Java type to map
+     * @param parser creates the parser
+     * @param <T>    value type
+     */
+    protected final <T> void registerSharedParserSupplier(
+            final @NonNull TypeToken<T> type,
+            final @NonNull Supplier<@NonNull ArgumentParser<?, T>> parser
     ) {
-        this.getParserRegistry().registerParserSupplier(type, params -> new WrappedBrigadierParser<>(argument));
+        this.getParserRegistry().registerParserSupplier(type, params -> SharedParsers.shared(type.getType(), parser));
     }
 
     /**
@@ -27,6 +27,7 @@ package net.impactdev.impactor.forge.commands.implementation;
 
 import cloud.commandframework.execution.preprocessor.CommandPreprocessingContext;
 import cloud.commandframework.execution.preprocessor.CommandPreprocessor;
+import net.impactdev.impactor.core.commands.metrics.TimedExecutionCoordinator;
 import net.impactdev.impactor.forge.commands.implementation.keys.ForgeCommandContextKeys;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
@@ -40,10 +41,12 @@ public class ForgeCommandPreprocessor<C> implements CommandPreprocessor<C> {
 
     @Override
     public void accept(@NonNull CommandPreprocessingContext<C> context) {
+        final long start = System.nanoTime();
         context.getCommandContext().store(
                 ForgeCommandContextKeys.NATIVE_COMMAND_SOURCE,
                 this.manager.backwardsSourceMapper().apply(context.getCommandContext().getSender())
         );
+        context.getCommandContext().store(TimedExecutionCoordinator.PREPROCESSING, System.nanoTime() - start);
     }
 
 }
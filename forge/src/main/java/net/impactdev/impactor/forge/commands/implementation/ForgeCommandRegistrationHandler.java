@@ -32,9 +32,31 @@ import com.mojang.brigadier.tree.LiteralCommandNode;
 import net.minecraft.commands.SharedSuggestionProvider;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.Map;
 
 public abstract class ForgeCommandRegistrationHandler<C, S extends SharedSuggestionProvider> implements CommandRegistrationHandler {
 
+    private static final Field CHILDREN;
+    private static final Field LITERALS;
+    private static final Field ARGUMENTS;
+
+    static {
+        try {
+            CHILDREN = CommandNode.class.getDeclaredField("children");
+            LITERALS = CommandNode.class.getDeclaredField("literals");
+            ARGUMENTS = CommandNode.class.getDeclaredField("arguments");
+
+            CHILDREN.setAccessible(true);
+            LITERALS.setAccessible(true);
+            ARGUMENTS.setAccessible(true);
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private @MonotonicNonNull ForgeCloudCommandManager<C, S> manager;
 
     protected void initialize(final ForgeCloudCommandManager<C, S> manager) {
@@ -45,24 +67,45 @@ public abstract class ForgeCommandRegistrationHandler<C, S extends SharedSuggest
         return this.manager;
     }
 
-    public static <S>LiteralCommandNode<S> buildRedirect(
+    /**
+     * Builds an alias for the given destination as a true brigadier redirect. The alias has no children
+     * of its own, so it adds a single node to the serialized command tree regardless of the size of the
+     * destination's subtree.
+     *
+     * @param alias The literal of the alias
+     * @param destination The node the alias should redirect to
+     * @return The alias node
+     */
+    public static <S> LiteralCommandNode<S> buildRedirect(
             final @NonNull String alias,
             final @NonNull CommandNode<S> destination
     ) {
-        final LiteralArgumentBuilder<S> builder = LiteralArgumentBuilder
+        return LiteralArgumentBuilder
                 .<S>literal(alias)
                 .requires(destination.getRequirement())
-                .forward(
-                        destination.getRedirect(),
-                        destination.getRedirectModifier(),
-                        destination.isFork()
-                )
-                .executes(destination.getCommand());
+                .executes(destination.getCommand())
+                .redirect(destination)
+                .build();
+    }
 
-        for(final CommandNode<S> child : destination.getChildren()) {
-            builder.then(child);
-        }
+    /**
+     * Removes the child with the given name from the target node. Brigadier offers no way to remove
+     * a node once it has been attached, so this reaches into the node's child mappings directly.
+     *
+     * @param parent The node to remove the child from
+     * @param name The name of the child to remove
+     * @return The removed node, or null if no child of that name was attached
+     */
+    @SuppressWarnings("unchecked")
+    public static <S> @Nullable CommandNode<S> removeChild(final @NonNull CommandNode<S> parent, final @NonNull String name) {
+        try {
+            final CommandNode<S> removed = ((Map<String, CommandNode<S>>) CHILDREN.get(parent)).remove(name);
+            ((Map<String, ?>) LITERALS.get(parent)).remove(name);
+            ((Map<String, ?>) ARGUMENTS.get(parent)).remove(name);
 
-        return builder.build();
+            return removed;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
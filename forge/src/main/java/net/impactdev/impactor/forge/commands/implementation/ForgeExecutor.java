@@ -34,6 +34,8 @@ import cloud.commandframework.exceptions.NoSuchCommandException;
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.LiteralCommandNode;
 import net.impactdev.impactor.api.utility.ExceptionPrinter;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.SharedSuggestionProvider;
@@ -58,12 +60,21 @@ import java.util.function.Function;
  */
 public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implements Command<S> {
 
+    /*
+     * Feedback components are built once and shared by every failure. Components sent as-is are never
+     * modified, while those which are further decorated are copied before doing so.
+     */
     private static final Component NEWLINE = Component.literal("\n");
-    private static final String MESSAGE_INTERNAL_ERROR = "An internal error occurred while attempting to perform this command.";
-    private static final String MESSAGE_NO_PERMS =
+    private static final Component MESSAGE_INTERNAL_ERROR = Component.literal("An internal error occurred while attempting to perform this command.");
+    private static final Component MESSAGE_NO_PERMS = Component.literal(
             "I'm sorry, but you do not have permission to perform this command. "
-                    + "Please contact the server administrators if you believe that this is in error.";
-    private static final String MESSAGE_UNKNOWN_COMMAND = "Unknown command. Type \"/help\" for help.";
+                    + "Please contact the server administrators if you believe that this is in error."
+    );
+    private static final Component MESSAGE_UNKNOWN_COMMAND = Component.literal("Unknown command. Type \"/help\" for help.");
+    private static final Component MESSAGE_INVALID_SYNTAX = Component.literal("Invalid Command Syntax. Correct command syntax is: ");
+    private static final Component MESSAGE_INVALID_ARGUMENT = Component.literal("Invalid Command Argument: ");
+    private static final Component MESSAGE_COPY = Component.literal("    Click to copy")
+            .withStyle(style -> style.withColor(ChatFormatting.GRAY).withItalic(true));
 
     private final ForgeCloudCommandManager<C, S> manager;
     private final Function<S, String> names;
@@ -82,7 +93,7 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
     @Override
     public int run(CommandContext<S> context) throws CommandSyntaxException {
         final S source = context.getSource();
-        final String input = context.getInput().substring(context.getLastChild().getNodes().get(0).getRange().getStart());
+        final String input = this.input(context.getLastChild());
         final C sender = this.manager.sourceMapper().apply(source);
 
         this.manager.executeCommand(sender, input).whenComplete((result, throwable) -> {
@@ -100,6 +111,21 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
         return Command.SINGLE_SUCCESS;
     }
 
+    /**
+     * Resolves the input cloud should parse from the context being executed. When the context was reached
+     * through an alias, brigadier redirects to the canonical node and the resulting context only contains
+     * the input following the alias, so the canonical literal is prepended in its place.
+     */
+    private String input(final CommandContext<S> context) {
+        final String input = context.getInput().substring(context.getNodes().get(0).getRange().getStart());
+        final CommandNode<S> root = context.getRootNode();
+        if(root instanceof LiteralCommandNode) {
+            return ((LiteralCommandNode<S>) root).getLiteral() + " " + input;
+        }
+
+        return input;
+    }
+
     private void handleThrowable(final @NonNull S source, final @NonNull C sender, final @NonNull Throwable throwable) {
         if (throwable instanceof InvalidSyntaxException) {
             this.manager.handleException(
@@ -108,7 +134,7 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
                     (InvalidSyntaxException) throwable,
                     (c, e) -> this.errors.accept(
                             source,
-                            Component.literal("Invalid Command Syntax. Correct command syntax is: ")
+                            MESSAGE_INVALID_SYNTAX.copy()
                                     .append(Component.literal(String.format("/%s", e.getCorrectSyntax()))
                                             .withStyle(style -> style.withColor(ChatFormatting.GRAY)))
                     )
@@ -125,14 +151,14 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
                     sender,
                     NoPermissionException.class,
                     (NoPermissionException) throwable,
-                    (c, e) -> this.errors.accept(source, Component.literal(MESSAGE_NO_PERMS))
+                    (c, e) -> this.errors.accept(source, MESSAGE_NO_PERMS)
             );
         } else if (throwable instanceof NoSuchCommandException) {
             this.manager.handleException(
                     sender,
                     NoSuchCommandException.class,
                     (NoSuchCommandException) throwable,
-                    (c, e) -> this.errors.accept(source, Component.literal(MESSAGE_UNKNOWN_COMMAND))
+                    (c, e) -> this.errors.accept(source, MESSAGE_UNKNOWN_COMMAND)
             );
         } else if (throwable instanceof ArgumentParseException) {
             this.manager.handleException(
@@ -141,11 +167,11 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
                     (ArgumentParseException) throwable,
                     (c, e) -> {
                         if (throwable.getCause() instanceof CommandSyntaxException) {
-                            this.errors.accept(source, Component.literal("Invalid Command Argument: ")
+                            this.errors.accept(source, MESSAGE_INVALID_ARGUMENT.copy()
                                     .append(Component.empty().append(ComponentUtils.fromMessage(((CommandSyntaxException) throwable.getCause()).getRawMessage())))
                                     .withStyle(ChatFormatting.GRAY));
                         } else {
-                            this.errors.accept(source, Component.literal("Invalid Command Argument: ")
+                            this.errors.accept(source, MESSAGE_INVALID_ARGUMENT.copy()
                                     .append(Component.literal(throwable.getCause().getMessage()).withStyle(ChatFormatting.GRAY)));
                         }
                     }
@@ -157,7 +183,7 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
                     (CommandExecutionException) throwable,
                     (c, e) -> {
                         this.errors.accept(source, this.decorateHoverStacktrace(
-                                Component.literal(MESSAGE_INTERNAL_ERROR),
+                                MESSAGE_INTERNAL_ERROR.copy(),
                                 throwable.getCause(),
                                 sender
                         ));
@@ -165,7 +191,7 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
             );
         } else {
             this.errors.accept(source, this.decorateHoverStacktrace(
-                    Component.literal(MESSAGE_INTERNAL_ERROR),
+                    MESSAGE_INTERNAL_ERROR.copy(),
                     throwable,
                     sender
             ));
@@ -185,8 +211,7 @@ public final class ForgeExecutor<C, S extends SharedSuggestionProvider> implemen
                         HoverEvent.Action.SHOW_TEXT,
                         Component.literal(stackTrace)
                                 .append(NEWLINE)
-                                .append(Component.literal("    Click to copy")
-                                        .withStyle(s2 -> s2.withColor(ChatFormatting.GRAY).withItalic(true)))
+                                .append(MESSAGE_COPY)
                 ))
                 .withClickEvent(new ClickEvent(
                         ClickEvent.Action.COPY_TO_CLIPBOARD,
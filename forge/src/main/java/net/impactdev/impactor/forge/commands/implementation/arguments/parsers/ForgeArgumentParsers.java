@@ -29,8 +29,11 @@ import cloud.commandframework.arguments.parser.ArgumentParseResult;
 import cloud.commandframework.arguments.parser.ArgumentParser;
 import cloud.commandframework.brigadier.argument.WrappedBrigadierParser;
 import cloud.commandframework.context.CommandContext;
+import cloud.commandframework.exceptions.CommandExecutionException;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import net.impactdev.impactor.forge.commands.implementation.ForgeCloudCommandManager;
 import net.impactdev.impactor.forge.commands.implementation.data.Coordinates;
 import net.impactdev.impactor.forge.commands.implementation.data.Message;
@@ -40,6 +43,7 @@ import net.impactdev.impactor.forge.commands.implementation.data.MultiplePlayerS
 import net.impactdev.impactor.forge.commands.implementation.data.SingleEntitySelector;
 import net.impactdev.impactor.forge.commands.implementation.data.SinglePlayerSelector;
 import net.impactdev.impactor.forge.commands.implementation.internal.EntitySelectorAccess;
+import net.impactdev.impactor.forge.commands.implementation.internal.SelectorEvaluator;
 import net.impactdev.impactor.forge.commands.implementation.keys.ForgeCommandContextKeys;
 import net.impactdev.impactor.forge.commands.mixins.MessageArgumentMessageAccess_Cloud;
 import net.impactdev.impactor.forge.commands.mixins.MessageArgumentPartAccess_Cloud;
@@ -55,21 +59,30 @@ import net.minecraft.commands.arguments.coordinates.Vec2Argument;
 import net.minecraft.commands.arguments.coordinates.Vec3Argument;
 import net.minecraft.commands.arguments.selector.EntitySelector;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.ForgeHooks;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.jetbrains.annotations.ApiStatus;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public final class ForgeArgumentParsers {
 
@@ -146,6 +159,21 @@ public final class ForgeArgumentParsers {
                 .map(ForgeArgumentParsers::mapToCoordinates);
     }
 
+    /**
+     * Create a region spanning the two given corners. This is the mapping applied to the pair of block
+     * coordinates parsed by a region argument.
+     *
+     * @param from the first corner
+     * @param to   the second corner
+     * @return a region spanning both corners
+     */
+    public static Coordinates.@NonNull Region region(
+            final Coordinates.@NonNull BlockCoordinates from,
+            final Coordinates.@NonNull BlockCoordinates to
+    ) {
+        return new RegionImpl(from, to);
+    }
+
     @SuppressWarnings("unchecked")
     private static <C, O extends Coordinates> @NonNull ArgumentParseResult<@NonNull O> mapToCoordinates(
             final @NonNull CommandContext<C> ctx,
@@ -174,8 +202,9 @@ public final class ForgeArgumentParsers {
                         serverCommandSource -> handleCommandSyntaxExceptionAsFailure(
                                 () -> ArgumentParseResult.success(new SinglePlayerSelectorImpl(
                                         ((EntitySelectorAccess) entitySelector).inputString(),
-                                        entitySelector,
-                                        entitySelector.findSinglePlayer(serverCommandSource)
+                                        checkPermissions(entitySelector, serverCommandSource),
+                                        serverCommandSource,
+                                        ctx
                                 ))
                         )
                 ));
@@ -195,8 +224,9 @@ public final class ForgeArgumentParsers {
                         serverCommandSource -> handleCommandSyntaxExceptionAsFailure(
                                 () -> ArgumentParseResult.success(new MultiplePlayerSelectorImpl(
                                         ((EntitySelectorAccess) entitySelector).inputString(),
-                                        entitySelector,
-                                        entitySelector.findPlayers(serverCommandSource)
+                                        checkPermissions(entitySelector, serverCommandSource),
+                                        serverCommandSource,
+                                        ctx
                                 ))
                         )
                 ));
@@ -216,8 +246,9 @@ public final class ForgeArgumentParsers {
                         serverCommandSource -> handleCommandSyntaxExceptionAsFailure(
                                 () -> ArgumentParseResult.success(new SingleEntitySelectorImpl(
                                         ((EntitySelectorAccess) entitySelector).inputString(),
-                                        entitySelector,
-                                        entitySelector.findSingleEntity(serverCommandSource)
+                                        checkPermissions(entitySelector, serverCommandSource),
+                                        serverCommandSource,
+                                        ctx
                                 ))
                         )
                 ));
@@ -237,8 +268,9 @@ public final class ForgeArgumentParsers {
                         serverCommandSource -> handleCommandSyntaxExceptionAsFailure(
                                 () -> ArgumentParseResult.success(new MultipleEntitySelectorImpl(
                                         ((EntitySelectorAccess) entitySelector).inputString(),
-                                        entitySelector,
-                                        Collections.unmodifiableCollection(entitySelector.findEntities(serverCommandSource))
+                                        checkPermissions(entitySelector, serverCommandSource),
+                                        serverCommandSource,
+                                        ctx
                                 ))
                         )
                 ));
@@ -281,6 +313,22 @@ public final class ForgeArgumentParsers {
         }
     }
 
+    /**
+     * Verifies the source may use the given selector, as vanilla would while resolving it. Selector
+     * resolution is deferred until the command requests its targets, but a source lacking permission to
+     * use selectors should continue to fail during parsing.
+     */
+    private static @NonNull EntitySelector checkPermissions(
+            final @NonNull EntitySelector selector,
+            final @NonNull CommandSourceStack source
+    ) throws CommandSyntaxException {
+        if (selector.usesSelector() && !ForgeHooks.canUseEntitySelectors(source)) {
+            throw EntityArgument.ERROR_SELECTORS_NOT_ALLOWED.create();
+        }
+
+        return selector;
+    }
+
     private static @NonNull IllegalStateException serverOnly() {
         return new IllegalStateException("This command argument type is server-only.");
     }
@@ -301,27 +349,59 @@ public final class ForgeArgumentParsers {
         private final Collection<Entity> mentionedEntities;
         private final Component contents;
 
+        /**
+         * Resolves the contents of the message, and the entities it mentions. Where selectors are permitted,
+         * the message is composed here rather than by vanilla, such that each distinct selector is only
+         * resolved once, regardless of how often it is mentioned, and its targets serve both the contents
+         * and the mentioned entities. Mentioned entities are deduplicated by their network id.
+         */
         static MessageImpl from(
                 final @NonNull CommandSourceStack source,
                 final MessageArgument.@NonNull Message message,
                 final boolean useSelectors
         ) throws CommandSyntaxException {
-            final Component contents = message.toComponent(source, useSelectors);
-            final MessageArgument.Part[] selectors =
-                    ((MessageArgumentMessageAccess_Cloud) message).accessor$parts();
-            final Collection<Entity> entities;
-            if (!useSelectors || selectors.length == 0) {
-                entities = Collections.emptySet();
-            } else {
-                entities = new HashSet<>();
-                for (final MessageArgument.Part selector : selectors) {
-                    entities.addAll(((MessageArgumentPartAccess_Cloud) selector)
-                            .accessor$selector()
-                            .findEntities(source));
+            final MessageArgumentMessageAccess_Cloud access = (MessageArgumentMessageAccess_Cloud) message;
+            final MessageArgument.Part[] parts = access.accessor$parts();
+            if (!useSelectors || parts.length == 0) {
+                return new MessageImpl(Collections.emptySet(), message.toComponent(source, useSelectors));
+            }
+
+            final String text = access.accessor$text();
+            final Map<String, List<? extends Entity>> resolved = new HashMap<>();
+            final IntSet seen = new IntOpenHashSet();
+            final List<Entity> entities = new ArrayList<>();
+
+            final MutableComponent contents = Component.literal(text.substring(0, parts[0].getStart()));
+            int cursor = parts[0].getStart();
+            for (final MessageArgument.Part part : parts) {
+                final EntitySelector selector = ((MessageArgumentPartAccess_Cloud) part).accessor$selector();
+                final String input = ((EntitySelectorAccess) selector).inputString();
+
+                List<? extends Entity> targets = resolved.get(input);
+                if (targets == null) {
+                    targets = SelectorEvaluator.findEntities(checkPermissions(selector, source), source);
+                    resolved.put(input, targets);
+
+                    for (final Entity entity : targets) {
+                        if (seen.add(entity.getId())) {
+                            entities.add(entity);
+                        }
+                    }
+                }
+
+                if (cursor < part.getStart()) {
+                    contents.append(text.substring(cursor, part.getStart()));
                 }
+
+                contents.append(EntitySelector.joinNames(targets));
+                cursor = part.getEnd();
+            }
+
+            if (cursor < text.length()) {
+                contents.append(text.substring(cursor));
             }
 
-            return new MessageImpl(entities, contents);
+            return new MessageImpl(Collections.unmodifiableList(entities), contents);
         }
 
         MessageImpl(final Collection<Entity> mentionedEntities, final Component contents) {
@@ -348,6 +428,10 @@ public final class ForgeArgumentParsers {
         private final CommandSourceStack source;
         private final net.minecraft.commands.arguments.coordinates.Coordinates posArgument;
 
+        // Resolved on first use. Both are immutable, so a racing thread at worst resolves them again
+        private Vec3 position;
+        private BlockPos blockPos;
+
         CoordinatesImpl(
                 final @NonNull CommandSourceStack source,
                 final net.minecraft.commands.arguments.coordinates.@NonNull Coordinates posArgument
@@ -358,12 +442,37 @@ public final class ForgeArgumentParsers {
 
         @Override
         public @NonNull Vec3 position() {
-            return this.posArgument.getPosition(this.source);
+            Vec3 position = this.position;
+            if (position == null) {
+                this.position = position = this.posArgument.getPosition(this.source);
+            }
+
+            return position;
         }
 
         @Override
         public @NonNull BlockPos blockPos() {
-            return new BlockPos(this.position());
+            BlockPos blockPos = this.blockPos;
+            if (blockPos == null) {
+                this.blockPos = blockPos = new BlockPos(this.position());
+            }
+
+            return blockPos;
+        }
+
+        @Override
+        public int blockX() {
+            return this.blockPos().getX();
+        }
+
+        @Override
+        public int blockY() {
+            return this.blockPos().getY();
+        }
+
+        @Override
+        public int blockZ() {
+            return this.blockPos().getZ();
         }
 
         @Override
@@ -387,150 +496,355 @@ public final class ForgeArgumentParsers {
         }
     }
 
-    static final class SingleEntitySelectorImpl implements SingleEntitySelector {
+    static final class RegionImpl implements Coordinates.Region {
+
+        private final Coordinates.BlockCoordinates from;
+        private final Coordinates.BlockCoordinates to;
+        private final BlockPos min;
+        private final BlockPos max;
+
+        RegionImpl(final Coordinates.@NonNull BlockCoordinates from, final Coordinates.@NonNull BlockCoordinates to) {
+            this.from = from;
+            this.to = to;
+
+            final BlockPos a = from.blockPos();
+            final BlockPos b = to.blockPos();
+            this.min = new BlockPos(Math.min(a.getX(), b.getX()), Math.min(a.getY(), b.getY()), Math.min(a.getZ(), b.getZ()));
+            this.max = new BlockPos(Math.max(a.getX(), b.getX()), Math.max(a.getY(), b.getY()), Math.max(a.getZ(), b.getZ()));
+        }
+
+        @Override
+        public Coordinates.@NonNull BlockCoordinates from() {
+            return this.from;
+        }
+
+        @Override
+        public Coordinates.@NonNull BlockCoordinates to() {
+            return this.to;
+        }
+
+        @Override
+        public @NonNull BlockPos min() {
+            return this.min;
+        }
+
+        @Override
+        public @NonNull BlockPos max() {
+            return this.max;
+        }
+
+        @Override
+        public long volume() {
+            return (long) (this.max.getX() - this.min.getX() + 1)
+                    * (this.max.getY() - this.min.getY() + 1)
+                    * (this.max.getZ() - this.min.getZ() + 1);
+        }
+
+        @Override
+        public boolean contains(final int x, final int y, final int z) {
+            return x >= this.min.getX() && x <= this.max.getX()
+                    && y >= this.min.getY() && y <= this.max.getY()
+                    && z >= this.min.getZ() && z <= this.max.getZ();
+        }
+
+        @Override
+        public Coordinates.Region.@NonNull Cursor cursor() {
+            return new RegionCursor(this.min, this.max);
+        }
+    }
+
+    /**
+     * Walks a region one chunk section at a time. Chunk columns are visited along x, then z, and the sections of
+     * each column from bottom to top. Within a section, positions follow the section's own storage order of
+     * y, then z, then x, so consecutive positions share a section and usually a paletted storage word.
+     */
+    static final class RegionCursor implements Coordinates.Region.Cursor {
+
+        private final BlockPos min;
+        private final BlockPos max;
+        private final BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
+
+        // The current section, in section coordinates
+        private int sectionX;
+        private int sectionY;
+        private int sectionZ;
+
+        // The bounds of the region clipped to the current section
+        private int x0, x1, y0, y1, z0, z1;
+
+        // The next position to visit
+        private int x, y, z;
+        private boolean exhausted;
+
+        RegionCursor(final @NonNull BlockPos min, final @NonNull BlockPos max) {
+            this.min = min;
+            this.max = max;
+            this.sectionX = SectionPos.blockToSectionCoord(min.getX());
+            this.sectionY = SectionPos.blockToSectionCoord(min.getY());
+            this.sectionZ = SectionPos.blockToSectionCoord(min.getZ());
+            this.enterSection();
+        }
+
+        @Override
+        public boolean exhausted() {
+            return this.exhausted;
+        }
+
+        @Override
+        public boolean advance(final long budget, final @NonNull Predicate<? super BlockPos.MutableBlockPos> visitor) {
+            for(long remaining = budget; remaining > 0 && !this.exhausted; --remaining) {
+                this.cursor.set(this.x, this.y, this.z);
+                this.step();
+                if(!visitor.test(this.cursor)) {
+                    break;
+                }
+            }
+
+            return !this.exhausted;
+        }
+
+        private void step() {
+            if(++this.x <= this.x1) {
+                return;
+            }
+
+            this.x = this.x0;
+            if(++this.z <= this.z1) {
+                return;
+            }
+
+            this.z = this.z0;
+            if(++this.y <= this.y1) {
+                return;
+            }
+
+            if(++this.sectionY > SectionPos.blockToSectionCoord(this.max.getY())) {
+                this.sectionY = SectionPos.blockToSectionCoord(this.min.getY());
+                if(++this.sectionX > SectionPos.blockToSectionCoord(this.max.getX())) {
+                    this.sectionX = SectionPos.blockToSectionCoord(this.min.getX());
+                    if(++this.sectionZ > SectionPos.blockToSectionCoord(this.max.getZ())) {
+                        this.exhausted = true;
+                        return;
+                    }
+                }
+            }
+
+            this.enterSection();
+        }
+
+        private void enterSection() {
+            this.x0 = Math.max(this.min.getX(), SectionPos.sectionToBlockCoord(this.sectionX));
+            this.x1 = Math.min(this.max.getX(), SectionPos.sectionToBlockCoord(this.sectionX, 15));
+            this.y0 = Math.max(this.min.getY(), SectionPos.sectionToBlockCoord(this.sectionY));
+            this.y1 = Math.min(this.max.getY(), SectionPos.sectionToBlockCoord(this.sectionY, 15));
+            this.z0 = Math.max(this.min.getZ(), SectionPos.sectionToBlockCoord(this.sectionZ));
+            this.z1 = Math.min(this.max.getZ(), SectionPos.sectionToBlockCoord(this.sectionZ, 15));
+
+            this.x = this.x0;
+            this.y = this.y0;
+            this.z = this.z0;
+        }
+    }
+
+    /**
+     * The base of each selector produced by the selector parsers. Targets are only resolved against the world
+     * once first requested, and are memoized thereafter, so commands which never access their targets, or
+     * which fail before doing so, never pay for the query.
+     *
+     * <p>Should the selector fail to match its targets, the failure is raised as a
+     * {@link CommandExecutionException} caused by the originating {@link CommandSyntaxException}, and carrying
+     * the context of the command the selector was parsed for.</p>
+     *
+     * @param <R> The resolved value of the selector
+     */
+    abstract static class LazySelector<R> {
 
         private final String inputString;
         private final EntitySelector entitySelector;
-        private final Entity selectedEntity;
+        private final CommandSourceStack source;
+        private final CommandContext<?> context;
 
-        SingleEntitySelectorImpl(
+        private volatile R resolved;
+
+        LazySelector(
                 final @NonNull String inputString,
                 final @NonNull EntitySelector entitySelector,
-                final @NonNull Entity selectedEntity
+                final @NonNull CommandSourceStack source,
+                final @NonNull CommandContext<?> context
         ) {
             this.inputString = inputString;
             this.entitySelector = entitySelector;
-            this.selectedEntity = selectedEntity;
+            this.source = source;
+            this.context = context;
         }
 
-        @Override
         public @NonNull String inputString() {
             return this.inputString;
         }
 
-        @Override
         public @NonNull EntitySelector selector() {
             return this.entitySelector;
         }
 
+        final @NonNull CommandSourceStack source() {
+            return this.source;
+        }
+
+        final boolean isResolved() {
+            return this.resolved != null;
+        }
+
+        abstract @NonNull R resolve(EntitySelector selector, CommandSourceStack source) throws CommandSyntaxException;
+
+        final @NonNull R resolved() {
+            R result = this.resolved;
+            if (result == null) {
+                synchronized (this) {
+                    result = this.resolved;
+                    if (result == null) {
+                        try {
+                            result = this.resolved = this.resolve(this.entitySelector, this.source);
+                        } catch (final CommandSyntaxException e) {
+                            throw new CommandExecutionException(e, this.context);
+                        }
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+
+    static final class SingleEntitySelectorImpl extends LazySelector<Entity> implements SingleEntitySelector {
+
+        SingleEntitySelectorImpl(
+                final @NonNull String inputString,
+                final @NonNull EntitySelector entitySelector,
+                final @NonNull CommandSourceStack source,
+                final @NonNull CommandContext<?> context
+        ) {
+            super(inputString, entitySelector, source, context);
+        }
+
+        @Override
+        @NonNull Entity resolve(final EntitySelector selector, final CommandSourceStack source) throws CommandSyntaxException {
+            return SelectorEvaluator.findSingleEntity(selector, source);
+        }
+
         @Override
         public @NonNull Entity getSingle() {
-            return this.selectedEntity;
+            return this.resolved();
         }
     }
 
-    static final class MultipleEntitySelectorImpl implements MultipleEntitySelector {
-
-        private final String inputString;
-        private final EntitySelector entitySelector;
-        private final Collection<Entity> selectedEntities;
+    static final class MultipleEntitySelectorImpl extends LazySelector<Collection<Entity>> implements MultipleEntitySelector {
 
         MultipleEntitySelectorImpl(
                 final @NonNull String inputString,
                 final @NonNull EntitySelector entitySelector,
-                final @NonNull Collection<Entity> selectedEntities
+                final @NonNull CommandSourceStack source,
+                final @NonNull CommandContext<?> context
         ) {
-            this.inputString = inputString;
-            this.entitySelector = entitySelector;
-            this.selectedEntities = selectedEntities;
+            super(inputString, entitySelector, source, context);
         }
 
         @Override
-        public @NonNull String inputString() {
-            return this.inputString;
+        @NonNull Collection<Entity> resolve(final EntitySelector selector, final CommandSourceStack source) throws CommandSyntaxException {
+            return Collections.unmodifiableCollection(SelectorEvaluator.findEntities(selector, source));
         }
 
         @Override
-        public @NonNull EntitySelector selector() {
-            return this.entitySelector;
+        public @NonNull Collection<Entity> get() {
+            return this.resolved();
         }
 
         @Override
-        public @NonNull Collection<Entity> get() {
-            return this.selectedEntities;
+        public @NonNull Stream<Entity> stream() {
+            if (!this.isResolved()) {
+                final Stream<Entity> stream = SelectorEvaluator.stream(this.selector(), this.source());
+                if (stream != null) {
+                    return stream;
+                }
+            }
+
+            return this.get().stream();
         }
     }
 
-    static final class SinglePlayerSelectorImpl implements SinglePlayerSelector {
-
-        private final String inputString;
-        private final EntitySelector entitySelector;
-        private final ServerPlayer selectedPlayer;
+    static final class SinglePlayerSelectorImpl extends LazySelector<ServerPlayer> implements SinglePlayerSelector {
 
         SinglePlayerSelectorImpl(
                 final @NonNull String inputString,
                 final @NonNull EntitySelector entitySelector,
-                final @NonNull ServerPlayer selectedPlayer
+                final @NonNull CommandSourceStack source,
+                final @NonNull CommandContext<?> context
         ) {
-            this.inputString = inputString;
-            this.entitySelector = entitySelector;
-            this.selectedPlayer = selectedPlayer;
+            super(inputString, entitySelector, source, context);
         }
 
         @Override
-        public @NonNull String inputString() {
-            return this.inputString;
-        }
-
-        @Override
-        public @NonNull EntitySelector selector() {
-            return this.entitySelector;
+        @NonNull ServerPlayer resolve(final EntitySelector selector, final CommandSourceStack source) throws CommandSyntaxException {
+            return SelectorEvaluator.findSinglePlayer(selector, source);
         }
 
         @Override
         public @NonNull ServerPlayer getSingle() {
-            return this.selectedPlayer;
+            return this.resolved();
         }
     }
 
-    static final class MultiplePlayerSelectorImpl implements MultiplePlayerSelector {
-
-        private final String inputString;
-        private final EntitySelector entitySelector;
-        private final Collection<ServerPlayer> selectedPlayers;
+    static final class MultiplePlayerSelectorImpl extends LazySelector<Collection<ServerPlayer>> implements MultiplePlayerSelector {
 
         MultiplePlayerSelectorImpl(
                 final @NonNull String inputString,
                 final @NonNull EntitySelector entitySelector,
-                final @NonNull Collection<ServerPlayer> selectedPlayers
+                final @NonNull CommandSourceStack source,
+                final @NonNull CommandContext<?> context
         ) {
-            this.inputString = inputString;
-            this.entitySelector = entitySelector;
-            this.selectedPlayers = selectedPlayers;
+            super(inputString, entitySelector, source, context);
         }
 
         @Override
-        public @NonNull String inputString() {
-            return this.inputString;
-        }
-
-        @Override
-        public @NonNull EntitySelector selector() {
-            return this.entitySelector;
+        @NonNull Collection<ServerPlayer> resolve(final EntitySelector selector, final CommandSourceStack source) throws CommandSyntaxException {
+            return Collections.unmodifiableCollection(SelectorEvaluator.findPlayers(selector, source));
         }
 
         @Override
         public @NonNull Collection<ServerPlayer> get() {
-            return this.selectedPlayers;
+            return this.resolved();
         }
     }
 
     @ApiStatus.Internal
     public static final class ContextualArgumentTypeProvider<V> implements Supplier<ArgumentType<V>> {
 
-        private static final ThreadLocal<ThreadLocalContext> CONTEXT = new ThreadLocal<>();
-        private static final Map<ForgeCloudCommandManager<?, ?>, Set<ContextualArgumentTypeProvider<?>>> INSTANCES =
-                new WeakHashMap<>();
+        private static final ThreadLocal<CommandBuildContext> CONTEXT = new ThreadLocal<>();
+
+        // Incremented to invalidate every provided argument type at once. Providers compare the generation
+        // their type was built in against this, and rebuild lazily, rather than being tracked and cleared
+        private static final AtomicInteger GENERATION = new AtomicInteger();
+
+        // The build context last exposed to providers. A new context means registries have been reloaded,
+        // which moves the generation forward. Providers used outside of an exposed context rebuild against
+        // this instead. It is only weakly held, as it references the registries of the server which built it
+        private static final AtomicReference<WeakReference<CommandBuildContext>> OBSERVED = new AtomicReference<>();
 
         private final Function<CommandBuildContext, ArgumentType<V>> provider;
-        private volatile ArgumentType<V> provided;
+        private volatile Provided<V> provided;
 
         /**
          * Temporarily expose a command build context to providers called from this thread.
          *
+         * <p>Exposing a context other than the one last exposed, such as after a datapack reload, invalidates
+         * the cached state of existing provider instances. Invalidated providers rebuild their argument type
+         * on their next use, against the latest exposed context, rather than all at once. Note that types
+         * mapped to brigadier nodes are still rebuilt as the dispatcher is rebuilt, since each node requires
+         * its native type, so only types which are otherwise used, such as by cloud's own parsing, are
+         * rebuilt lazily.</p>
+         *
          * @param ctx            the context
          * @param commandManager command manager to use
-         * @param resetExisting  whether to clear cached state from existing provider instances for this command type
+         * @param resetExisting  whether to invalidate the cached state of existing provider instances
          * @param action         an action to perform while the context is exposed
          * @since 1.7.0
          */
@@ -540,39 +854,39 @@ public final class ForgeArgumentParsers {
                 final boolean resetExisting,
                 final Runnable action
         ) {
-            final ThreadLocalContext context = new ThreadLocalContext(commandManager, ctx);
-            CONTEXT.set(context);
+            if(resetExisting) {
+                GENERATION.incrementAndGet();
+            }
 
-            try {
-                if (resetExisting) {
-                    synchronized (INSTANCES) {
-                        for (final ContextualArgumentTypeProvider<?> contextualArgumentTypeProvider : context.instances()) {
-                            contextualArgumentTypeProvider.provided = null;
-                        }
-                    }
-                }
+            observe(ctx);
 
+            CONTEXT.set(ctx);
+            try {
                 action.run();
             } finally {
                 CONTEXT.remove();
             }
         }
 
-        private static final class ThreadLocalContext {
-
-            private final ForgeCloudCommandManager<?, ?> commandManager;
-            private final CommandBuildContext commandBuildContext;
+        /**
+         * Get the current generation of provided argument types. Types provided in an earlier generation
+         * are rebuilt on their next use.
+         *
+         * @return the current generation
+         */
+        public static int generation() {
+            return GENERATION.get();
+        }
 
-            private ThreadLocalContext(
-                    final ForgeCloudCommandManager<?, ?> commandManager,
-                    final CommandBuildContext commandBuildContext
-            ) {
-                this.commandManager = commandManager;
-                this.commandBuildContext = commandBuildContext;
-            }
+        private static void observe(final CommandBuildContext ctx) {
+            WeakReference<CommandBuildContext> observed = OBSERVED.get();
+            while(observed == null || observed.get() != ctx) {
+                if(OBSERVED.compareAndSet(observed, new WeakReference<>(ctx))) {
+                    GENERATION.incrementAndGet();
+                    return;
+                }
 
-            private Set<ContextualArgumentTypeProvider<?>> instances() {
-                return INSTANCES.computeIfAbsent(this.commandManager, $ -> Collections.newSetFromMap(new WeakHashMap<>()));
+                observed = OBSERVED.get();
             }
         }
 
@@ -582,28 +896,47 @@ public final class ForgeArgumentParsers {
 
         @Override
         public ArgumentType<V> get() {
-            final ThreadLocalContext ctx = CONTEXT.get();
+            final int generation = GENERATION.get();
+            final Provided<V> provided = this.provided;
+            if(provided != null && provided.generation == generation) {
+                return provided.type;
+            }
 
-            if (ctx != null) {
-                synchronized (INSTANCES) {
-                    ctx.instances().add(this);
-                }
+            final @Nullable CommandBuildContext ctx = context();
+            if(ctx == null) {
+                // A type built against earlier registries may resolve entries which no longer exist
+                throw new IllegalStateException("No build context was available while trying to compute an argument type");
             }
 
-            ArgumentType<V> provided = this.provided;
-            if (provided == null) {
-                synchronized (this) {
-                    if (this.provided == null) {
-                        if (ctx == null) {
-                            throw new IllegalStateException(
-                                    "No build context was available while trying to compute an argument type");
-                        }
-                        provided = this.provider.apply(ctx.commandBuildContext);
-                        this.provided = provided;
-                    }
-                }
+            // Racing threads may each build a type, but any of them is equally valid to keep
+            final Provided<V> rebuilt = new Provided<>(generation, this.provider.apply(ctx));
+            this.provided = rebuilt;
+            return rebuilt.type;
+        }
+
+        /**
+         * Provides the context exposed to the calling thread, or otherwise the latest exposed context, as it
+         * reflects the current registries.
+         */
+        private static @Nullable CommandBuildContext context() {
+            final @Nullable CommandBuildContext exposed = CONTEXT.get();
+            if(exposed != null) {
+                return exposed;
+            }
+
+            final @Nullable WeakReference<CommandBuildContext> observed = OBSERVED.get();
+            return observed != null ? observed.get() : null;
+        }
+
+        private static final class Provided<V> {
+
+            private final int generation;
+            private final ArgumentType<V> type;
+
+            private Provided(final int generation, final ArgumentType<V> type) {
+                this.generation = generation;
+                this.type = type;
             }
-            return provided;
         }
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.forge.commands.implementation.arguments.server;
+
+import cloud.commandframework.arguments.compound.ArgumentPair;
+import cloud.commandframework.types.tuples.Pair;
+import io.leangen.geantyref.TypeToken;
+import net.impactdev.impactor.forge.commands.implementation.arguments.parsers.ForgeArgumentParsers;
+import net.impactdev.impactor.forge.commands.implementation.data.Coordinates.BlockCoordinates;
+import net.impactdev.impactor.forge.commands.implementation.data.Coordinates.Region;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An argument for resolving a {@link Region}, from a pair of {@link BlockCoordinates} marking opposite corners.
+ *
+ * <p>Each corner is parsed as its own node, exactly as a {@link BlockPosArgument} would be, so clients receive
+ * native suggestions and validation for both.</p>
+ *
+ * @param <C> the sender type
+ */
+public final class RegionArgument<C> extends ArgumentPair<C, BlockCoordinates, BlockCoordinates, Region> {
+
+    RegionArgument(
+            final boolean required,
+            final @NonNull String name,
+            final @NonNull String from,
+            final @NonNull String to
+    ) {
+        super(
+                required,
+                name,
+                Pair.of(from, to),
+                Pair.of(BlockCoordinates.class, BlockCoordinates.class),
+                Pair.of(ForgeArgumentParsers.blockPos(), ForgeArgumentParsers.blockPos()),
+                (sender, corners) -> ForgeArgumentParsers.region(corners.getFirst(), corners.getSecond()),
+                TypeToken.get(Region.class)
+        );
+    }
+
+    /**
+     * Create a new required {@link RegionArgument}, with corners named {@code from} and {@code to}.
+     *
+     * @param name Component name
+     * @param <C>  Command sender type
+     * @return Created argument
+     */
+    public static <C> @NonNull RegionArgument<C> of(final @NonNull String name) {
+        return of(name, "from", "to");
+    }
+
+    /**
+     * Create a new required {@link RegionArgument}, with the given corner names.
+     *
+     * @param name Component name
+     * @param from Name of the first corner
+     * @param to   Name of the second corner
+     * @param <C>  Command sender type
+     * @return Created argument
+     */
+    public static <C> @NonNull RegionArgument<C> of(
+            final @NonNull String name,
+            final @NonNull String from,
+            final @NonNull String to
+    ) {
+        return new RegionArgument<>(true, name, from, to);
+    }
+
+    /**
+     * Create a new optional {@link RegionArgument}, with corners named {@code from} and {@code to}.
+     *
+     * @param name Component name
+     * @param <C>  Command sender type
+     * @return Created argument
+     */
+    public static <C> @NonNull RegionArgument<C> optional(final @NonNull String name) {
+        return new RegionArgument<>(false, name, "from", "to");
+    }
+}
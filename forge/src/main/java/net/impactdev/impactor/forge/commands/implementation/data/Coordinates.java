@@ -29,9 +29,12 @@ import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
 import net.minecraft.commands.arguments.coordinates.ColumnPosArgument;
 import net.minecraft.commands.arguments.coordinates.Vec2Argument;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import java.util.function.Predicate;
+
 /**
  * A {@link net.minecraft.commands.arguments.coordinates.Coordinates} wrapper for easier use with cloud commands.
  *
@@ -42,6 +45,9 @@ public interface Coordinates {
     /**
      * Resolve a position from the parsed coordinates.
      *
+     * <p>The parsed coordinates are resolved relative to the source which provided them, so the resolved
+     * position never changes, and implementations may memoize it.</p>
+     *
      * @return position
      * @since 1.5.0
      */
@@ -55,6 +61,60 @@ public interface Coordinates {
      */
     @NonNull BlockPos blockPos();
 
+    /**
+     * Resolve the x coordinate of the position.
+     *
+     * @return the x coordinate
+     */
+    default double x() {
+        return this.position().x;
+    }
+
+    /**
+     * Resolve the y coordinate of the position.
+     *
+     * @return the y coordinate
+     */
+    default double y() {
+        return this.position().y;
+    }
+
+    /**
+     * Resolve the z coordinate of the position.
+     *
+     * @return the z coordinate
+     */
+    default double z() {
+        return this.position().z;
+    }
+
+    /**
+     * Resolve the x coordinate of the block position.
+     *
+     * @return the block x coordinate
+     */
+    default int blockX() {
+        return Mth.floor(this.x());
+    }
+
+    /**
+     * Resolve the y coordinate of the block position.
+     *
+     * @return the block y coordinate
+     */
+    default int blockY() {
+        return Mth.floor(this.y());
+    }
+
+    /**
+     * Resolve the z coordinate of the block position.
+     *
+     * @return the block z coordinate
+     */
+    default int blockZ() {
+        return Mth.floor(this.z());
+    }
+
     /**
      * Get whether the x coordinate is relative.
      *
@@ -114,4 +174,116 @@ public interface Coordinates {
     interface ColumnCoordinates extends Coordinates {
 
     }
+
+    /**
+     * A cuboid region of blocks, spanning two {@link BlockCoordinates} inclusively, as parsed by a region argument.
+     *
+     * <p>Regions are iterated in chunk order. Each 16x16x16 chunk section covered by the region is visited in turn,
+     * and the positions within a section are visited in the order the section stores its blocks, such that large
+     * regions are traversed with good locality. Iteration is performed with a single mutable position, which is
+     * updated in place for every block, and so must be copied via {@link BlockPos#immutable()} if it is to be
+     * retained.</p>
+     */
+    interface Region {
+
+        /**
+         * Get the first corner of the region, as parsed.
+         *
+         * @return the first corner
+         */
+        @NonNull BlockCoordinates from();
+
+        /**
+         * Get the second corner of the region, as parsed.
+         *
+         * @return the second corner
+         */
+        @NonNull BlockCoordinates to();
+
+        /**
+         * Get the corner of the region with the smallest coordinates on each axis.
+         *
+         * @return the minimum corner
+         */
+        @NonNull BlockPos min();
+
+        /**
+         * Get the corner of the region with the largest coordinates on each axis.
+         *
+         * @return the maximum corner
+         */
+        @NonNull BlockPos max();
+
+        /**
+         * Get the number of blocks within the region.
+         *
+         * @return the volume of the region
+         */
+        long volume();
+
+        /**
+         * Get whether the given block position lies within the region.
+         *
+         * @param x the block x coordinate
+         * @param y the block y coordinate
+         * @param z the block z coordinate
+         * @return whether the position is within the region
+         */
+        boolean contains(int x, int y, int z);
+
+        /**
+         * Visit every block position within the region, in chunk order, until the visitor returns false.
+         *
+         * @param visitor receives each position, returning false to stop iteration
+         * @return whether every position was visited, or false if the visitor stopped iteration
+         */
+        default boolean forEach(final @NonNull Predicate<? super BlockPos.MutableBlockPos> visitor) {
+            // The cursor is exhausted after its last position even if the visitor declined it, so whether
+            // the visitor stopped iteration is tracked separately
+            final boolean[] stopped = new boolean[1];
+            this.cursor().advance(Long.MAX_VALUE, position -> {
+                if(!visitor.test(position)) {
+                    stopped[0] = true;
+                    return false;
+                }
+
+                return true;
+            });
+
+            return !stopped[0];
+        }
+
+        /**
+         * Create a new cursor over the region, positioned at its first block. A cursor may be advanced by a
+         * limited number of blocks at a time, and later resumed, allowing work over a large region to be
+         * spread across several ticks.
+         *
+         * @return a new cursor
+         */
+        @NonNull Cursor cursor();
+
+        /**
+         * A resumable position within the chunk ordered iteration of a {@link Region}.
+         */
+        interface Cursor {
+
+            /**
+             * Get whether every position of the region has been visited.
+             *
+             * @return whether the cursor is exhausted
+             */
+            boolean exhausted();
+
+            /**
+             * Visit up to the given number of positions, continuing from where the cursor last stopped.
+             * Iteration stops early if the visitor returns false, in which case the cursor resumes from
+             * the following position.
+             *
+             * @param budget  the maximum number of positions to visit
+             * @param visitor receives each position, returning false to stop iteration
+             * @return whether any positions remain to be visited
+             */
+            boolean advance(long budget, @NonNull Predicate<? super BlockPos.MutableBlockPos> visitor);
+        }
+    }
 }
@@ -29,8 +29,13 @@ import net.minecraft.commands.arguments.selector.EntitySelector;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
 
 /**
  * A selector string to query multiple entity-like values
@@ -67,6 +72,63 @@ public interface Selector<V> {
      */
     @NonNull Collection<V> get();
 
+    /**
+     * Stream the values of this selector.
+     *
+     * <p>Where the selector is resolved against an immutable snapshot of the world, values are produced
+     * lazily as they are found, in which case filters and short-circuiting operations such as
+     * {@link Stream#findFirst()} or {@link Stream#limit(long)} are applied during the search itself, and end
+     * it early, without materializing every match. Otherwise, every value is resolved before the stream is
+     * returned, and this streams the values of {@link #get()}. A live level is never searched lazily, as it
+     * may be modified by the server while the stream is being consumed.</p>
+     *
+     * @return a stream of the matched values
+     */
+    default @NonNull Stream<V> stream() {
+        return this.get().stream();
+    }
+
+    /**
+     * Iterate the values of this selector in chunks of at most the given size, such that a large number of
+     * values may be processed incrementally, for instance across several ticks. Iteration may stop at any
+     * point, in which case no further values are searched for.
+     *
+     * <p>Values are produced by {@link #stream()}, and so reflect the world as it was when this method was
+     * called, or as of the snapshot the selector was resolved against. Entities may therefore have been
+     * removed from their level by the time a later chunk is processed, which callers consuming chunks across
+     * several ticks should check for.</p>
+     *
+     * @param size the maximum number of values per chunk
+     * @return an iterator over chunks of the matched values
+     */
+    default @NonNull Iterator<List<V>> chunks(final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        final Iterator<V> values = this.stream().iterator();
+        return new Iterator<List<V>>() {
+            @Override
+            public boolean hasNext() {
+                return values.hasNext();
+            }
+
+            @Override
+            public List<V> next() {
+                if (!values.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                final List<V> chunk = new ArrayList<>(size);
+                while (chunk.size() < size && values.hasNext()) {
+                    chunk.add(values.next());
+                }
+
+                return chunk;
+            }
+        };
+    }
+
     /**
      * A specialized selector that can only return one value.
      *
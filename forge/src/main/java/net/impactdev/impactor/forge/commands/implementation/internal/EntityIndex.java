@@ -0,0 +1,235 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.forge.commands.implementation.internal;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * An optional index of the entities of each server level, bucketed by the chunk column they reside in.
+ * The index is kept up to date incrementally as entities join and leave a level, or cross into another
+ * chunk, and allows bounded entity selectors to only visit the entities of the chunks their bounds cover.
+ *
+ * <p>Vanilla already narrows bounded selectors through the section storage of the level. The index
+ * however may be queried safely off of the server thread, where selectors are resolved by asynchronous
+ * command execution, without walking the level's own storage as it is being modified.</p>
+ *
+ * <p>Entities are released from the index as they leave their level, alongside every entity of a level
+ * once it unloads. Should an entity be discarded without its level reporting so, it is skipped by queries,
+ * and released by a sweep of the index performed once a minute.</p>
+ *
+ * <p>The index is disabled by default, and is enabled by setting the
+ * {@code impactor.commands.selectors.entity-index} system property to {@code true}.</p>
+ */
+public final class EntityIndex {
+
+    private static final boolean ENABLED = Boolean.getBoolean("impactor.commands.selectors.entity-index");
+
+    /** Vanilla pads queries of its section storage by this amount, to account for the size of entities */
+    private static final double PADDING = 2.0D;
+
+    /** The number of ticks between sweeps of the index for discarded entities */
+    private static final int SWEEP_INTERVAL = 1200;
+
+    private final Map<ResourceKey<Level>, Map<Long, Set<Entity>>> levels = new ConcurrentHashMap<>();
+    private final Map<Entity, Long> locations = new ConcurrentHashMap<>();
+
+    // Only accessed by the server thread
+    private int ticks;
+
+    private EntityIndex() {
+        MinecraftForge.EVENT_BUS.register(this);
+    }
+
+    /**
+     * Ensures the index is listening for entity changes, if it is enabled. This must be called before any
+     * level is loaded, such that no entity goes unnoticed.
+     */
+    public static void initialize() {
+        instance();
+    }
+
+    /**
+     * Provides the entity index, if it has been enabled.
+     *
+     * @return The entity index, or null if disabled
+     */
+    public static @Nullable EntityIndex instance() {
+        return ENABLED ? Holder.INSTANCE : null;
+    }
+
+    /**
+     * Visits every indexed entity of the given level residing in a chunk which intersects the given bounds.
+     * Entities are not tested against the bounds themselves, this remains the responsibility of the caller.
+     *
+     * @param level    The level to query
+     * @param bounds   The bounds of the query
+     * @param visitor  Receives each entity within the chunks covered by the bounds
+     */
+    public void collect(final @NonNull ServerLevel level, final @NonNull AABB bounds, final @NonNull Consumer<Entity> visitor) {
+        final Map<Long, Set<Entity>> chunks = this.levels.get(level.dimension());
+        if(chunks == null) {
+            return;
+        }
+
+        final Consumer<Entity> consumer = entity -> {
+            if(!entity.isRemoved()) {
+                visitor.accept(entity);
+            }
+        };
+
+        final int minX = SectionPos.posToSectionCoord(bounds.minX - PADDING);
+        final int maxX = SectionPos.posToSectionCoord(bounds.maxX + PADDING);
+        final int minZ = SectionPos.posToSectionCoord(bounds.minZ - PADDING);
+        final int maxZ = SectionPos.posToSectionCoord(bounds.maxZ + PADDING);
+
+        // Very large bounds cover more chunks than are populated, in which case it is cheaper to filter
+        // the populated chunks than to look up every chunk covered by the bounds
+        final long covered = ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+        if(covered > chunks.size()) {
+            for(final Map.Entry<Long, Set<Entity>> chunk : chunks.entrySet()) {
+                final int x = ChunkPos.getX(chunk.getKey());
+                final int z = ChunkPos.getZ(chunk.getKey());
+                if(x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                    chunk.getValue().forEach(consumer);
+                }
+            }
+
+            return;
+        }
+
+        for(int x = minX; x <= maxX; x++) {
+            for(int z = minZ; z <= maxZ; z++) {
+                final Set<Entity> entities = chunks.get(ChunkPos.asLong(x, z));
+                if(entities != null) {
+                    entities.forEach(consumer);
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onEntityJoin(final EntityJoinLevelEvent event) {
+        if(event.getLevel() instanceof ServerLevel) {
+            this.insert(event.getEntity(), event.getLevel().dimension(), event.getEntity().chunkPosition().toLong());
+        }
+    }
+
+    @SubscribeEvent
+    public void onEntityLeave(final EntityLeaveLevelEvent event) {
+        if(event.getLevel() instanceof ServerLevel) {
+            this.remove(event.getEntity(), event.getLevel().dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public void onEntityMove(final EntityEvent.EnteringSection event) {
+        final Entity entity = event.getEntity();
+        if(event.didChunkChange() && entity.level instanceof ServerLevel && this.locations.containsKey(entity)) {
+            final ResourceKey<Level> level = entity.level.dimension();
+            this.remove(entity, level);
+            this.insert(entity, level, event.getNewPos().chunk().toLong());
+        }
+    }
+
+    @SubscribeEvent
+    public void onLevelUnload(final LevelEvent.Unload event) {
+        if(event.getLevel() instanceof ServerLevel) {
+            final Map<Long, Set<Entity>> chunks = this.levels.remove(((ServerLevel) event.getLevel()).dimension());
+            if(chunks != null) {
+                chunks.values().forEach(entities -> entities.forEach(this.locations::remove));
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerTick(final TickEvent.ServerTickEvent event) {
+        if(event.phase != TickEvent.Phase.END || ++this.ticks < SWEEP_INTERVAL) {
+            return;
+        }
+
+        this.ticks = 0;
+        for(final Map<Long, Set<Entity>> chunks : this.levels.values()) {
+            chunks.values().forEach(entities -> entities.removeIf(Entity::isRemoved));
+            chunks.values().removeIf(Set::isEmpty);
+        }
+
+        this.locations.keySet().removeIf(Entity::isRemoved);
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(final ServerStoppedEvent event) {
+        this.levels.clear();
+        this.locations.clear();
+    }
+
+    private void insert(final Entity entity, final ResourceKey<Level> level, final long chunk) {
+        this.levels.computeIfAbsent(level, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunk, key -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
+                .add(entity);
+        this.locations.put(entity, chunk);
+    }
+
+    private void remove(final Entity entity, final ResourceKey<Level> level) {
+        final Long chunk = this.locations.remove(entity);
+        final Map<Long, Set<Entity>> chunks = this.levels.get(level);
+        if(chunk == null || chunks == null) {
+            return;
+        }
+
+        chunks.computeIfPresent(chunk, (key, entities) -> {
+            entities.remove(entity);
+            return entities.isEmpty() ? null : entities;
+        });
+    }
+
+    private static final class Holder {
+        private static final EntityIndex INSTANCE = new EntityIndex();
+    }
+
+}
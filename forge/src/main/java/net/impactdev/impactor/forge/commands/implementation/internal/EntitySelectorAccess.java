@@ -25,7 +25,18 @@
 
 package net.impactdev.impactor.forge.commands.implementation.internal;
 
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.entity.EntityTypeTest;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 public interface EntitySelectorAccess {
     /**
@@ -41,4 +52,101 @@ public interface EntitySelectorAccess {
      * @param inputString input string
      */
     void inputString(@NonNull String inputString);
+
+    /**
+     * Get whether the selector's options read state of an entity the server thread may be modifying as it is
+     * read, such as its tags, scores, team, or NBT, rather than only fields such as its position and type
+     *
+     * @return whether the selector reads shared state
+     */
+    boolean readsSharedState();
+
+    /**
+     * Set whether the selector's options read shared state of an entity
+     *
+     * @param readsSharedState whether the selector reads shared state
+     */
+    void readsSharedState(boolean readsSharedState);
+
+    /**
+     * Get the function resolving the origin of the selector from the position of its source
+     *
+     * @return the position function
+     */
+    @NonNull Function<Vec3, Vec3> position();
+
+    /**
+     * Get the box, relative to the origin of the selector, that selected entities must intersect
+     *
+     * @return the relative bounds, or null if the selector is unbounded
+     */
+    @Nullable AABB aabb();
+
+    /**
+     * Get the name of the single player targeted by the selector
+     *
+     * @return the player name, or null if the selector does not target a player by name
+     */
+    @Nullable String playerName();
+
+    /**
+     * Get the UUID of the single entity targeted by the selector
+     *
+     * @return the entity UUID, or null if the selector does not target an entity by UUID
+     */
+    @Nullable UUID entityUUID();
+
+    /**
+     * Get the test restricting the types of entities matched by the selector
+     *
+     * @return the type test
+     */
+    @NonNull EntityTypeTest<Entity, ?> type();
+
+    /**
+     * Get the predicate an entity must satisfy to be matched by the selector, relative to the given origin
+     *
+     * @param origin the origin of the selector
+     * @return the predicate
+     */
+    @NonNull Predicate<Entity> predicate(@NonNull Vec3 origin);
+
+    /**
+     * Get the maximum number of entities to collect before the selector's sort and limit are applied
+     *
+     * @return the result limit
+     */
+    int resultLimit();
+
+    /**
+     * Sort the collected entities and apply the selector's limit, as vanilla would
+     *
+     * @param origin the origin of the selector
+     * @param entities the collected entities
+     * @return the sorted and limited entities
+     * @param <T> the entity type
+     */
+    <T extends Entity> @NonNull List<T> sortAndLimitResults(@NonNull Vec3 origin, @NonNull List<T> entities);
+
+    /**
+     * Get the maximum number of entities the selector matches, once sorted
+     *
+     * @return the maximum number of results
+     */
+    int maxResults();
+
+    /**
+     * Get the function sorting the entities matched by the selector, relative to its origin
+     *
+     * @return the sort order
+     */
+    @NonNull BiConsumer<Vec3, List<? extends Entity>> order();
+
+    /**
+     * Get whether the selector neither sorts nor limits the entities it matches, such that its targets
+     * may be visited in any order as they are found
+     *
+     * @return whether the selector is unsorted and unlimited
+     */
+    boolean unordered();
 }
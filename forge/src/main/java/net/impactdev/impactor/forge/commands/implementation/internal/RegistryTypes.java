@@ -0,0 +1,239 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.forge.commands.implementation.internal;
+
+import com.mojang.serialization.Codec;
+import io.leangen.geantyref.GenericTypeReflector;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Discovers the value types of the vanilla registries, alongside the key of the registry holding them.
+ *
+ * <p>Discovery reflects over every field of {@link Registry}, so it is performed once per JVM and shared
+ * by every command manager. If the {@code impactor.commands.registry-snapshot} system property points to
+ * a file, the names of the discovered fields are written to it, and subsequent startups on the same
+ * Minecraft version resolve only those fields rather than scanning the entire class.</p>
+ */
+public final class RegistryTypes {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int MOD_PUBLIC_STATIC_FINAL = Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL;
+    private static final String SNAPSHOT_PROPERTY = "impactor.commands.registry-snapshot";
+
+    private RegistryTypes() {}
+
+    /**
+     * Provides the discovered registry value types, mapped to the key of their registry.
+     *
+     * @return An immutable view of the discovered registry types
+     */
+    public static @NonNull Map<Type, ResourceKey<?>> types() {
+        return Holder.TYPES;
+    }
+
+    private static final class Holder {
+        private static final Map<Type, ResourceKey<?>> TYPES = discover();
+    }
+
+    private static Map<Type, ResourceKey<?>> discover() {
+        final @Nullable String location = System.getProperty(SNAPSHOT_PROPERTY);
+        final @Nullable Path snapshot = location != null ? Paths.get(location) : null;
+
+        if(snapshot != null) {
+            final @Nullable List<Discovered> cached = read(snapshot);
+            if(cached != null) {
+                return collect(cached);
+            }
+        }
+
+        final List<Discovered> discovered = scan();
+        if(snapshot != null) {
+            write(snapshot, discovered);
+        }
+
+        return collect(discovered);
+    }
+
+    private static Map<Type, ResourceKey<?>> collect(final List<Discovered> discovered) {
+        final Map<Type, ResourceKey<?>> result = new LinkedHashMap<>();
+        for(final Discovered entry : discovered) {
+            result.put(entry.type, entry.key);
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static List<Discovered> scan() {
+        final List<Discovered> result = new ArrayList<>();
+
+        /* Find all fields of RegistryKey<? extends Registry<?>> and register those */
+        /* This only works for vanilla registries really, we'll have to do other things for non-vanilla ones */
+        final Set<Class<?>> seenClasses = new HashSet<>();
+        /* Some registries have types that are too generic... we'll skip those for now.
+         * Eventually, these could be resolved by using ParserParameters in some way? */
+        seenClasses.add(ResourceLocation.class);
+        seenClasses.add(Codec.class);
+        for (final Field field : Registry.class.getDeclaredFields()) {
+            final @Nullable Discovered discovered = resolve(field);
+            if (discovered == null) {
+                continue;
+            }
+
+            if (seenClasses.contains(GenericTypeReflector.erase(discovered.type))) {
+                LOGGER.debug("Encountered duplicate type in registry {}: type {}", discovered.key, discovered.type);
+                continue;
+            }
+            seenClasses.add(GenericTypeReflector.erase(discovered.type));
+
+            result.add(discovered);
+        }
+
+        return result;
+    }
+
+    private static @Nullable Discovered resolve(final Field field) {
+        if ((field.getModifiers() & MOD_PUBLIC_STATIC_FINAL) != MOD_PUBLIC_STATIC_FINAL) {
+            return null;
+        }
+        if (!field.getType().equals(ResourceKey.class)) {
+            return null;
+        }
+
+        final Type generic = field.getGenericType(); /* RegistryKey<? extends Registry<?>> */
+        if (!(generic instanceof ParameterizedType)) {
+            return null;
+        }
+
+        Type registryType = ((ParameterizedType) generic).getActualTypeArguments()[0];
+        while (registryType instanceof WildcardType) {
+            registryType = ((WildcardType) registryType).getUpperBounds()[0];
+        }
+
+        if (!(registryType instanceof ParameterizedType)) { /* expected: Registry<V> */
+            return null;
+        }
+
+        final ResourceKey<?> key;
+        try {
+            key = (ResourceKey<?>) field.get(null);
+        } catch (final IllegalAccessException ex) {
+            LOGGER.warn("Failed to access value of registry key in field {} of type {}", field.getName(), generic, ex);
+            return null;
+        }
+
+        final Type valueType = ((ParameterizedType) registryType).getActualTypeArguments()[0];
+        return new Discovered(field.getName(), valueType, key);
+    }
+
+    private static String version() {
+        return "minecraft " + SharedConstants.getCurrentVersion().getName();
+    }
+
+    private static @Nullable List<Discovered> read(final Path snapshot) {
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+
+        try {
+            final List<String> lines = Files.readAllLines(snapshot, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(version())) {
+                return null;
+            }
+
+            final List<Discovered> result = new ArrayList<>();
+            for (final String name : lines.subList(1, lines.size())) {
+                final @Nullable Discovered discovered = resolve(Registry.class.getDeclaredField(name));
+                if (discovered == null) {
+                    return null;
+                }
+
+                result.add(discovered);
+            }
+
+            return result;
+        } catch (final IOException | NoSuchFieldException ex) {
+            LOGGER.warn("Failed to read registry type snapshot from {}, falling back to discovery", snapshot, ex);
+            return null;
+        }
+    }
+
+    private static void write(final Path snapshot, final List<Discovered> discovered) {
+        final List<String> lines = new ArrayList<>();
+        lines.add(version());
+        for (final Discovered entry : discovered) {
+            lines.add(entry.field);
+        }
+
+        try {
+            if (snapshot.getParent() != null) {
+                Files.createDirectories(snapshot.getParent());
+            }
+
+            Files.write(snapshot, lines, StandardCharsets.UTF_8);
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to write registry type snapshot to {}", snapshot, ex);
+        }
+    }
+
+    private static final class Discovered {
+
+        private final String field;
+        private final Type type;
+        private final ResourceKey<?> key;
+
+        private Discovered(final String field, final Type type, final ResourceKey<?> key) {
+            this.field = field;
+            this.type = type;
+            this.key = key;
+        }
+    }
+
+}
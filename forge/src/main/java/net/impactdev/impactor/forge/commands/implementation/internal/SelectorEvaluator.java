@@ -0,0 +1,629 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.forge.commands.implementation.internal;
+
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.arguments.EntityArgument;
+import net.minecraft.commands.arguments.selector.EntitySelector;
+import net.minecraft.commands.arguments.selector.EntitySelectorParser;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.entity.EntityTypeTest;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.entity.PartEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Resolves the targets of parsed entity selectors, making use of the {@link EntityIndex} where it is enabled
+ * and applicable to the selector. Selectors the index cannot serve are resolved by vanilla.
+ *
+ * <p>Selectors resolved off of the server thread read from the latest {@link WorldSnapshot} instead, where
+ * snapshots are enabled, such that the live entity storage of a level is never iterated concurrently
+ * with the server ticking it. Candidates are sorted by their captured positions, though the selector's
+ * predicate is still tested against the live entities, so only selectors whose options read plain fields,
+ * such as position, rotation, name, or type, are served by the snapshot. Those whose options read state
+ * backed by collections the server thread mutates, such as tags, scores, teams, or NBT, as well as those
+ * targeting the source, a named player, or a particular entity, are resolved on the server thread, with
+ * the calling thread waiting on the result. The same applies should no snapshot be available yet.</p>
+ *
+ * <p>Where enabled via the {@code impactor.commands.selectors.tick-cache} system property, results are
+ * additionally memoized for the remainder of the current server tick, keyed by the selector's input,
+ * alongside the level, position, and entity of the source it is resolved relative to. Repeated
+ * evaluations of the same selector by the same source within a tick, as is typical of command blocks
+ * and scripts, then share a single immutable result. The cache is discarded at the end of each server
+ * tick, as well as whenever a level unloads or the server stops, so the entities it holds are never kept
+ * beyond the tick they were resolved in.</p>
+ */
+public final class SelectorEvaluator {
+
+    private static final boolean MEMOIZE = Boolean.getBoolean("impactor.commands.selectors.tick-cache");
+    private static final TickCache EMPTY = new TickCache(-1);
+    private static final AtomicReference<TickCache> CACHE = new AtomicReference<>(EMPTY);
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+    /** The number of seconds a caller waits on the server thread to resolve a selector on its behalf */
+    private static final long SERVER_TIMEOUT = 10;
+    private static final SimpleCommandExceptionType UNAVAILABLE = new SimpleCommandExceptionType(
+            Component.literal("The server was unable to resolve this selector in time")
+    );
+
+    private SelectorEvaluator() {}
+
+    /**
+     * Ensures memoized results are discarded as each server tick ends, if memoization is enabled.
+     */
+    public static void initialize() {
+        if(MEMOIZE && REGISTERED.compareAndSet(false, true)) {
+            MinecraftForge.EVENT_BUS.register(new Listener());
+        }
+    }
+
+    /**
+     * Resolves the entities matched by the given selector, as {@link EntitySelector#findEntities(CommandSourceStack)}
+     * would. The source is expected to have already been verified to be permitted to use the selector.
+     *
+     * @param selector The selector to resolve
+     * @param source   The source the selector is resolved relative to
+     * @return The matched entities
+     * @throws CommandSyntaxException If vanilla fails to resolve the selector
+     */
+    public static @NonNull List<? extends Entity> findEntities(
+            final @NonNull EntitySelector selector,
+            final @NonNull CommandSourceStack source
+    ) throws CommandSyntaxException {
+        return memoize(Kind.ENTITIES, selector, source, () -> resolve(selector, source));
+    }
+
+    /**
+     * Resolves the players matched by the given selector, as {@link EntitySelector#findPlayers(CommandSourceStack)}
+     * would. The source is expected to have already been verified to be permitted to use the selector.
+     *
+     * @param selector The selector to resolve
+     * @param source   The source the selector is resolved relative to
+     * @return The matched players
+     * @throws CommandSyntaxException If vanilla fails to resolve the selector
+     */
+    public static @NonNull List<? extends ServerPlayer> findPlayers(
+            final @NonNull EntitySelector selector,
+            final @NonNull CommandSourceStack source
+    ) throws CommandSyntaxException {
+        return memoize(Kind.PLAYERS, selector, source, () -> resolvePlayers(selector, source));
+    }
+
+    /**
+     * Resolves the single entity matched by the given selector, failing as vanilla would if the selector
+     * matches either no entity or multiple entities.
+     *
+     * @param selector The selector to resolve
+     * @param source   The source the selector is resolved relative to
+     * @return The matched entity
+     * @throws CommandSyntaxException If the selector does not match exactly one entity
+     */
+    public static @NonNull Entity findSingleEntity(
+            final @NonNull EntitySelector selector,
+            final @NonNull CommandSourceStack source
+    ) throws CommandSyntaxException {
+        final List<? extends Entity> entities = findEntities(selector, source);
+        if(entities.isEmpty()) {
+            throw EntityArgument.NO_ENTITIES_FOUND.create();
+        } else if(entities.size() > 1) {
+            throw EntityArgument.ERROR_NOT_SINGLE_ENTITY.create();
+        }
+
+        return entities.get(0);
+    }
+
+    /**
+     * Resolves the single player matched by the given selector, failing as vanilla would if the selector
+     * matches either no player or multiple players.
+     *
+     * @param selector The selector to resolve
+     * @param source   The source the selector is resolved relative to
+     * @return The matched player
+     * @throws CommandSyntaxException If the selector does not match exactly one player
+     */
+    public static @NonNull ServerPlayer findSinglePlayer(
+            final @NonNull EntitySelector selector,
+            final @NonNull CommandSourceStack source
+    ) throws CommandSyntaxException {
+        final List<? extends ServerPlayer> players = findPlayers(selector, source);
+        if(players.size() != 1) {
+            throw EntityArgument.NO_PLAYERS_FOUND.create();
+        }
+
+        return players.get(0);
+    }
+
+    /**
+     * Lazily streams the entities matched by the given selector, visiting candidates only as the stream is
+     * consumed. This is only possible where the selector neither sorts nor limits its matches, and would
+     * otherwise search entire levels, and only where a snapshot is available to the calling thread and may
+     * serve the selector. The live
+     * levels are never streamed lazily, as the server may modify them while the stream is consumed, possibly
+     * across several ticks.
+     *
+     * @param selector The selector to resolve
+     * @param source   The source the selector is resolved relative to
+     * @return A lazy stream of the matched entities, or null if the selector must be fully resolved
+     */
+    public static @Nullable Stream<Entity> stream(
+            final @NonNull EntitySelector selector,
+            final @NonNull CommandSourceStack source
+    ) {
+        final EntitySelectorAccess access = (EntitySelectorAccess) selector;
+        if(!selector.includesEntities() || !snapshotable(selector, access) || !access.unordered()) {
+            return null;
+        }
+
+        final @Nullable WorldSnapshot snapshot = WorldSnapshot.acquire(source.getServer());
+        if(snapshot == null) {
+            return null;
+        }
+
+        final Vec3 origin = access.position().apply(source.getPosition());
+        final @Nullable AABB bounds = access.aabb() != null ? access.aabb().move(origin) : null;
+        final Predicate<Entity> predicate = access.predicate(origin);
+        final EntityTypeTest<Entity, ?> type = access.type();
+
+        final Stream<WorldSnapshot.Entities> levels = selector.isWorldLimited()
+                ? Stream.of(snapshot.entities(source.getLevel().dimension()))
+                : StreamSupport.stream(snapshot.entities().spliterator(), false);
+
+        final Stream<Entity> candidates = levels.flatMap(entities -> IntStream.range(0, entities.size())
+                .filter(i -> bounds == null || bounds.intersects(entities.bounds(i)))
+                .mapToObj(entities::entity)
+                .filter(entity -> !entity.isRemoved())
+        );
+
+        return candidates
+                .flatMap(entity -> entity.isMultipartEntity()
+                        ? Stream.concat(Stream.of(entity), Arrays.stream(entity.getParts()))
+                        : Stream.of(entity)
+                )
+                .<Entity>map(type::tryCast)
+                .filter(entity -> entity != null && predicate.test(entity));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Entity> List<? extends T> memoize(
+            final Kind kind,
+            final EntitySelector selector,
+            final CommandSourceStack source,
+            final Resolver<T> resolver
+    ) throws CommandSyntaxException {
+        if(!MEMOIZE) {
+            return resolver.resolve();
+        }
+
+        final int tick = source.getServer().getTickCount();
+        TickCache cache = CACHE.get();
+        if(cache.tick != tick) {
+            final TickCache next = new TickCache(tick);
+            cache = CACHE.compareAndSet(cache, next) ? next : CACHE.get();
+        }
+
+        final Key key = new Key(kind, ((EntitySelectorAccess) selector).inputString(), source);
+        final List<? extends Entity> cached = cache.results.get(key);
+        if(cached != null) {
+            return (List<? extends T>) cached;
+        }
+
+        final List<T> result = List.copyOf(resolver.resolve());
+        if(cache.tick == tick) {
+            cache.results.putIfAbsent(key, result);
+        }
+
+        return result;
+    }
+
+    private static List<? extends Entity> resolve(
+            final EntitySelector selector,
+            final CommandSourceStack source
+    ) throws CommandSyntaxException {
+        // Mirrors vanilla, which resolves selectors limited to players as it would resolve them for players
+        if(!selector.includesEntities()) {
+            return resolvePlayers(selector, source);
+        }
+
+        final EntitySelectorAccess access = (EntitySelectorAccess) selector;
+        if(WorldSnapshot.required(source.getServer())) {
+            final @Nullable WorldSnapshot snapshot = snapshotable(selector, access) ? WorldSnapshot.acquire(source.getServer()) : null;
+            if(snapshot == null) {
+                return onServerThread(source, () -> selector.findEntities(source));
+            }
+
+            return resolve(snapshot, selector, access, source);
+        }
+
+        final EntityIndex index = EntityIndex.instance();
+        if(index == null || !indexable(selector, access)) {
+            return selector.findEntities(source);
+        }
+
+        final Vec3 origin = access.position().apply(source.getPosition());
+        final AABB bounds = access.aabb().move(origin);
+        final Predicate<Entity> predicate = access.predicate(origin);
+        final EntityTypeTest<Entity, ?> type = access.type();
+        final int limit = access.resultLimit();
+
+        final List<Entity> result = new ArrayList<>();
+        index.collect(source.getLevel(), bounds, entity -> consider(entity, type, predicate, limit, result));
+
+        return access.sortAndLimitResults(origin, result);
+    }
+
+    /**
+     * Resolves the entities matched by a selector from the given snapshot, rather than the live levels.
+     * Entities are only pre-filtered by the bounds captured within the snapshot, the selector's own
+     * predicate is still tested against each candidate.
+     */
+    private static List<? extends Entity> resolve(
+            final WorldSnapshot snapshot,
+            final EntitySelector selector,
+            final EntitySelectorAccess access,
+            final CommandSourceStack source
+    ) {
+        final Vec3 origin = access.position().apply(source.getPosition());
+        final @Nullable AABB bounds = access.aabb() != null ? access.aabb().move(origin) : null;
+        final Predicate<Entity> predicate = access.predicate(origin);
+        final EntityTypeTest<Entity, ?> type = access.type();
+        final int limit = access.resultLimit();
+
+        final List<Entity> result = new ArrayList<>();
+        if(selector.isWorldLimited()) {
+            collect(snapshot.entities(source.getLevel().dimension()), bounds, type, predicate, limit, result);
+        } else {
+            for(final WorldSnapshot.Entities entities : snapshot.entities()) {
+                collect(entities, bounds, type, predicate, limit, result);
+            }
+        }
+
+        return sortAndLimit(snapshot, access, origin, result);
+    }
+
+    private static void collect(
+            final WorldSnapshot.Entities entities,
+            final @Nullable AABB bounds,
+            final EntityTypeTest<Entity, ?> type,
+            final Predicate<Entity> predicate,
+            final int limit,
+            final List<Entity> result
+    ) {
+        for(int i = 0; i < entities.size() && result.size() < limit; i++) {
+            if((bounds == null || bounds.intersects(entities.bounds(i))) && !entities.entity(i).isRemoved()) {
+                consider(entities.entity(i), type, predicate, limit, result);
+            }
+        }
+    }
+
+    /**
+     * Resolves the players matched by a selector, reading from the latest snapshot where the calling
+     * thread is not the server thread. This otherwise mirrors {@link EntitySelector#findPlayers(CommandSourceStack)}.
+     */
+    private static List<? extends ServerPlayer> resolvePlayers(
+            final EntitySelector selector,
+            final CommandSourceStack source
+    ) throws CommandSyntaxException {
+        if(!WorldSnapshot.required(source.getServer())) {
+            return selector.findPlayers(source);
+        }
+
+        final EntitySelectorAccess access = (EntitySelectorAccess) selector;
+        final @Nullable WorldSnapshot snapshot = snapshotable(selector, access) ? WorldSnapshot.acquire(source.getServer()) : null;
+        if(snapshot == null) {
+            return onServerThread(source, () -> selector.findPlayers(source));
+        }
+
+        final Vec3 origin = access.position().apply(source.getPosition());
+        final Predicate<Entity> predicate = access.predicate(origin);
+        final int limit = access.resultLimit();
+
+        final List<ServerPlayer> result = new ArrayList<>();
+        if(selector.isWorldLimited()) {
+            for(final ServerPlayer player : snapshot.entities(source.getLevel().dimension()).players()) {
+                if(!player.isRemoved() && predicate.test(player)) {
+                    result.add(player);
+                    if(result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        } else {
+            for(final ServerPlayer player : snapshot.players()) {
+                if(!player.isRemoved() && predicate.test(player)) {
+                    result.add(player);
+                    if(result.size() >= limit) {
+                        // Vanilla returns the players collected across all levels without sorting once
+                        // the limit is reached
+                        return result;
+                    }
+                }
+            }
+        }
+
+        return sortAndLimit(snapshot, access, origin, result);
+    }
+
+    /**
+     * Sorts and limits the entities matched by a selector as vanilla would, though by the positions captured
+     * within the snapshot, as live positions may change while being sorted. Each distance is computed once,
+     * falling back to the live position of an entity only where none was captured.
+     */
+    private static <T extends Entity> List<T> sortAndLimit(
+            final WorldSnapshot snapshot,
+            final EntitySelectorAccess access,
+            final Vec3 origin,
+            final List<T> entities
+    ) {
+        if(entities.size() > 1) {
+            final BiConsumer<Vec3, List<? extends Entity>> order = access.order();
+            if(order == EntitySelectorParser.ORDER_RANDOM) {
+                Collections.shuffle(entities);
+            } else if(order != EntitySelectorParser.ORDER_ARBITRARY) {
+                final Map<Entity, Double> distances = new IdentityHashMap<>();
+                for(final T entity : entities) {
+                    final @Nullable Vec3 position = snapshot.position(entity);
+                    distances.put(entity, (position != null ? position : entity.position()).distanceToSqr(origin));
+                }
+
+                final Comparator<T> nearest = Comparator.comparingDouble(distances::get);
+                entities.sort(order == EntitySelectorParser.ORDER_NEAREST ? nearest : nearest.reversed());
+            }
+        }
+
+        return entities.subList(0, Math.min(access.maxResults(), entities.size()));
+    }
+
+    /**
+     * Resolves a selector on the server thread, waiting on the result, for callers which may neither read
+     * the live levels from their own thread, nor serve the selector from a snapshot. Callers fail rather
+     * than wait should the server be stopping, or not resolve the selector within {@link #SERVER_TIMEOUT}
+     * seconds, as the server may never get to it.
+     */
+    private static <T extends Entity> List<? extends T> onServerThread(
+            final CommandSourceStack source,
+            final Resolver<T> resolver
+    ) throws CommandSyntaxException {
+        final MinecraftServer server = source.getServer();
+        if(!server.isRunning()) {
+            throw UNAVAILABLE.create();
+        }
+
+        final CompletableFuture<List<? extends T>> future = server.submit(() -> {
+            try {
+                return resolver.resolve();
+            } catch (final CommandSyntaxException e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        try {
+            return future.get(SERVER_TIMEOUT, TimeUnit.SECONDS);
+        } catch (final ExecutionException e) {
+            if(e.getCause() instanceof CommandSyntaxException) {
+                throw (CommandSyntaxException) e.getCause();
+            }
+
+            throw new CompletionException(e.getCause());
+        } catch (final TimeoutException e) {
+            future.cancel(false);
+            throw UNAVAILABLE.create();
+        } catch (final InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw UNAVAILABLE.create();
+        }
+    }
+
+    /**
+     * Indicates whether the given selector searches for its targets, rather than targeting the source,
+     * a named player, or a particular entity, each of which vanilla resolves without iterating a level.
+     */
+    private static boolean searches(final EntitySelector selector, final EntitySelectorAccess access) {
+        return !selector.isSelfSelector()
+                && access.playerName() == null
+                && access.entityUUID() == null;
+    }
+
+    /**
+     * Indicates whether the given selector may be served by a snapshot. Only selectors which search for
+     * their targets, using options which read plain fields of an entity alone, and sorting them in one of
+     * vanilla's orders, qualify.
+     */
+    private static boolean snapshotable(final EntitySelector selector, final EntitySelectorAccess access) {
+        final BiConsumer<Vec3, List<? extends Entity>> order = access.order();
+        return searches(selector, access)
+                && !access.readsSharedState()
+                && (order == EntitySelectorParser.ORDER_ARBITRARY
+                        || order == EntitySelectorParser.ORDER_NEAREST
+                        || order == EntitySelectorParser.ORDER_FURTHEST
+                        || order == EntitySelectorParser.ORDER_RANDOM);
+    }
+
+    /**
+     * Indicates whether the given selector may be served by the index. Only selectors which search for
+     * entities within bounds of a single level qualify, while those targeting the source, a named player,
+     * or a particular entity are cheap enough to resolve through vanilla.
+     */
+    private static boolean indexable(final EntitySelector selector, final EntitySelectorAccess access) {
+        return selector.includesEntities()
+                && selector.isWorldLimited()
+                && searches(selector, access)
+                && access.aabb() != null;
+    }
+
+    private static void consider(
+            final Entity entity,
+            final EntityTypeTest<Entity, ?> type,
+            final Predicate<Entity> predicate,
+            final int limit,
+            final List<Entity> result
+    ) {
+        if(result.size() < limit) {
+            test(entity, type, predicate, result);
+
+            // Mirrors vanilla, which considers the parts of multipart entities alongside their parent
+            if(entity.isMultipartEntity()) {
+                for(final PartEntity<?> part : entity.getParts()) {
+                    if(result.size() < limit) {
+                        test(part, type, predicate, result);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void test(final Entity entity, final EntityTypeTest<Entity, ?> type, final Predicate<Entity> predicate, final List<Entity> result) {
+        final Entity candidate = type.tryCast(entity);
+        if(candidate != null && predicate.test(candidate)) {
+            result.add(candidate);
+        }
+    }
+
+    private static final class Listener {
+
+        @SubscribeEvent
+        public void onServerTick(final TickEvent.ServerTickEvent event) {
+            if(event.phase == TickEvent.Phase.END) {
+                CACHE.set(EMPTY);
+            }
+        }
+
+        @SubscribeEvent
+        public void onLevelUnload(final LevelEvent.Unload event) {
+            CACHE.set(EMPTY);
+        }
+
+        @SubscribeEvent
+        public void onServerStopped(final ServerStoppedEvent event) {
+            CACHE.set(EMPTY);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Resolver<T extends Entity> {
+
+        List<? extends T> resolve() throws CommandSyntaxException;
+    }
+
+    private enum Kind {
+        ENTITIES,
+        PLAYERS
+    }
+
+    private static final class TickCache {
+
+        private final int tick;
+        private final Map<Key, List<? extends Entity>> results = new ConcurrentHashMap<>();
+
+        private TickCache(final int tick) {
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Identifies a selector evaluation. The source's entity is compared by identity, as selectors such
+     * as {@code @s}, or those sorting by distance, resolve differently depending on it.
+     */
+    private static final class Key {
+
+        private final Kind kind;
+        private final String input;
+        private final ResourceKey<Level> level;
+        private final Vec3 position;
+        private final @Nullable Entity entity;
+        private final int hash;
+
+        private Key(final Kind kind, final String input, final CommandSourceStack source) {
+            this.kind = kind;
+            this.input = input;
+            this.level = source.getLevel().dimension();
+            this.position = source.getPosition();
+            this.entity = source.getEntity();
+            this.hash = Objects.hash(kind, input, this.level, this.position, System.identityHashCode(this.entity));
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if(this == o) {
+                return true;
+            }
+
+            if(!(o instanceof Key)) {
+                return false;
+            }
+
+            final Key other = (Key) o;
+            return this.hash == other.hash
+                    && this.kind == other.kind
+                    && this.entity == other.entity
+                    && this.input.equals(other.input)
+                    && this.level.equals(other.level)
+                    && this.position.equals(other.position);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+}
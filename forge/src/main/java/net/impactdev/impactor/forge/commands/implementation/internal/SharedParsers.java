@@ -0,0 +1,68 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.forge.commands.implementation.internal;
+
+import cloud.commandframework.arguments.parser.ArgumentParser;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds argument parsers which carry no state of their own, and can therefore be shared by every
+ * command manager. Parsers are only created once a command first requests them, and are then reused
+ * for every subsequent argument of the same kind, regardless of the manager it belongs to.
+ *
+ * <p>Parsers held here must not depend on the command sender type of the manager requesting them. The
+ * wrapped brigadier parsers registered by default only interact with the native command source, and
+ * satisfy this requirement.</p>
+ */
+public final class SharedParsers {
+
+    private static final Map<Object, ArgumentParser<?, ?>> PARSERS = new ConcurrentHashMap<>();
+
+    private SharedParsers() {}
+
+    /**
+     * Provides the parser shared under the given key, creating it via the given factory if no
+     * such parser has been created yet.
+     *
+     * @param key      A key uniquely identifying the parser, and any parameters it was created with
+     * @param factory  Creates the parser if it is not yet available
+     * @param <C>      The command sender type of the requesting manager
+     * @param <T>      The value type of the parser
+     * @return The shared parser
+     */
+    @SuppressWarnings("unchecked")
+    public static <C, T> @NonNull ArgumentParser<C, T> shared(
+            final @NonNull Object key,
+            final @NonNull Supplier<@NonNull ArgumentParser<?, T>> factory
+    ) {
+        return (ArgumentParser<C, T>) PARSERS.computeIfAbsent(key, k -> factory.get());
+    }
+
+}
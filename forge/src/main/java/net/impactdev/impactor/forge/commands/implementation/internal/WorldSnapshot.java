@@ -0,0 +1,270 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.forge.commands.implementation.internal;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.entity.PartEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An immutable capture of the entities and players of each server level, along with the bounds and position
+ * of each entity, taken at the end of a server tick. Selectors resolved off of the server thread, as they are
+ * during asynchronous command parsing and execution, read the latest snapshot rather than iterating the
+ * live entity storage of a level while the server thread may be modifying it.
+ *
+ * <p>Only the set of entities, their bounds, and their positions are captured. The entities themselves
+ * remain live, so anything else read from them reflects their current state rather than that of the
+ * snapshot. Readers must therefore restrict themselves to plain fields of an entity, and leave anything
+ * backed by a collection the server thread mutates, such as tags, scores, or NBT, to the server thread.</p>
+ *
+ * <p>Snapshots are only captured while they are in demand, that is, for a short number of ticks following
+ * the last time a snapshot was read. The first asynchronous evaluation after a period of inactivity finds
+ * no snapshot available, and is instead resolved on the server thread, see {@link #required(MinecraftServer)}.</p>
+ *
+ * <p>Entities captured by a snapshot may have been removed from their level since it was taken. Readers
+ * are expected to skip any entity which {@link Entity#isRemoved() is removed}.</p>
+ *
+ * <p>Snapshots are disabled by default, and are enabled by setting the
+ * {@code impactor.commands.selectors.snapshots} system property to {@code true}.</p>
+ */
+public final class WorldSnapshot {
+
+    private static final boolean ENABLED = Boolean.getBoolean("impactor.commands.selectors.snapshots");
+
+    /** The number of ticks snapshots continue to be captured for after last being read */
+    private static final int DEMAND_TICKS = 100;
+
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+    private static volatile @Nullable WorldSnapshot latest;
+    private static volatile int demanded = -1;
+
+    private final int tick;
+    private final Map<ResourceKey<Level>, Entities> levels;
+    private final List<ServerPlayer> players;
+    private final Map<Entity, Vec3> positions;
+
+    private WorldSnapshot(int tick, Map<ResourceKey<Level>, Entities> levels, List<ServerPlayer> players, Map<Entity, Vec3> positions) {
+        this.tick = tick;
+        this.levels = levels;
+        this.players = players;
+        this.positions = positions;
+    }
+
+    /**
+     * Ensures snapshots are captured at the end of each server tick, if enabled.
+     */
+    public static void initialize() {
+        if(ENABLED && REGISTERED.compareAndSet(false, true)) {
+            MinecraftForge.EVENT_BUS.register(new Listener());
+        }
+    }
+
+    /**
+     * Provides the latest snapshot for use by the calling thread. A snapshot is only provided to threads
+     * other than the server thread, as the server thread may read the live levels directly.
+     *
+     * @param server The server the snapshot is requested for
+     * @return The latest snapshot, or null if disabled, not yet captured, or requested by the server thread
+     */
+    public static @Nullable WorldSnapshot acquire(final @NonNull MinecraftServer server) {
+        if(!ENABLED || server.isSameThread()) {
+            return null;
+        }
+
+        demanded = server.getTickCount();
+        return latest;
+    }
+
+    /**
+     * Indicates whether the calling thread may not read the live levels, as snapshots are enabled and it is
+     * not the server thread. Such a caller must read from a snapshot, or resolve on the server thread.
+     *
+     * @param server The server the levels belong to
+     * @return True if the live levels may not be read by the calling thread
+     */
+    public static boolean required(final @NonNull MinecraftServer server) {
+        return ENABLED && !server.isSameThread();
+    }
+
+    /**
+     * Provides the tick the snapshot was captured at the end of.
+     *
+     * @return The tick the snapshot was captured at
+     */
+    public int tick() {
+        return this.tick;
+    }
+
+    /**
+     * Provides the entities of the given level, as of this snapshot.
+     *
+     * @param level The level of the entities
+     * @return The captured entities of the level, which will be empty if the level was not loaded
+     */
+    public @NonNull Entities entities(final @NonNull ResourceKey<Level> level) {
+        return this.levels.getOrDefault(level, Entities.EMPTY);
+    }
+
+    /**
+     * Provides the captured entities of every level.
+     *
+     * @return The captured entities of every level
+     */
+    public @NonNull Iterable<Entities> entities() {
+        return this.levels.values();
+    }
+
+    /**
+     * Provides the players connected to the server, as of this snapshot.
+     *
+     * @return The captured players
+     */
+    public @NonNull List<ServerPlayer> players() {
+        return this.players;
+    }
+
+    /**
+     * Provides the position of the given entity, as of this snapshot. The parts of multipart entities are
+     * captured alongside their parent.
+     *
+     * @param entity The entity to locate
+     * @return The captured position of the entity, or null if it was not captured
+     */
+    public @Nullable Vec3 position(final @NonNull Entity entity) {
+        return this.positions.get(entity);
+    }
+
+    private static WorldSnapshot capture(final MinecraftServer server) {
+        final Map<ResourceKey<Level>, Entities> levels = new HashMap<>();
+        final Map<Entity, Vec3> positions = new IdentityHashMap<>();
+        for(final ServerLevel level : server.getAllLevels()) {
+            final List<Entity> entities = new ArrayList<>();
+            level.getAllEntities().forEach(entities::add);
+
+            final Entity[] captured = entities.toArray(new Entity[0]);
+            final AABB[] bounds = new AABB[captured.length];
+            for(int i = 0; i < captured.length; i++) {
+                bounds[i] = captured[i].getBoundingBox();
+                positions.put(captured[i], captured[i].position());
+                if(captured[i].isMultipartEntity()) {
+                    for(final PartEntity<?> part : captured[i].getParts()) {
+                        positions.put(part, part.position());
+                    }
+                }
+            }
+
+            levels.put(level.dimension(), new Entities(captured, bounds, List.copyOf(level.players())));
+        }
+
+        return new WorldSnapshot(
+                server.getTickCount(),
+                Collections.unmodifiableMap(levels),
+                List.copyOf(server.getPlayerList().getPlayers()),
+                positions
+        );
+    }
+
+    /**
+     * The entities of a single level, alongside their bounds, as of the end of the captured tick.
+     */
+    public static final class Entities {
+
+        private static final Entities EMPTY = new Entities(new Entity[0], new AABB[0], List.of());
+
+        private final Entity[] entities;
+        private final AABB[] bounds;
+        private final List<ServerPlayer> players;
+
+        private Entities(Entity[] entities, AABB[] bounds, List<ServerPlayer> players) {
+            this.entities = entities;
+            this.bounds = bounds;
+            this.players = players;
+        }
+
+        public int size() {
+            return this.entities.length;
+        }
+
+        public @NonNull Entity entity(int index) {
+            return this.entities[index];
+        }
+
+        public @NonNull AABB bounds(int index) {
+            return this.bounds[index];
+        }
+
+        public @NonNull List<ServerPlayer> players() {
+            return this.players;
+        }
+    }
+
+    private static final class Listener {
+
+        @SubscribeEvent
+        public void onServerTick(final TickEvent.ServerTickEvent event) {
+            if(event.phase != TickEvent.Phase.END) {
+                return;
+            }
+
+            final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+            if(server == null || demanded < 0 || server.getTickCount() - demanded > DEMAND_TICKS) {
+                latest = null;
+                return;
+            }
+
+            latest = capture(server);
+        }
+
+        @SubscribeEvent
+        public void onServerStopped(final ServerStoppedEvent event) {
+            latest = null;
+            demanded = -1;
+        }
+    }
+
+}
@@ -34,6 +34,8 @@ import io.leangen.geantyref.TypeToken;
 import net.impactdev.impactor.api.Impactor;
 import net.impactdev.impactor.api.commands.CommandSource;
 import net.impactdev.impactor.api.services.permissions.PermissionsService;
+import net.impactdev.impactor.core.commands.metrics.PermissionTimer;
+import net.impactdev.impactor.core.commands.metrics.TimedExecutionCoordinator;
 import net.impactdev.impactor.forge.commands.implementation.ForgeCloudCommandManager;
 import net.impactdev.impactor.forge.commands.implementation.ForgeParserParameters;
 import net.impactdev.impactor.forge.commands.implementation.annotations.Center;
@@ -44,6 +46,10 @@ import net.impactdev.impactor.forge.commands.implementation.data.MultipleEntityS
 import net.impactdev.impactor.forge.commands.implementation.data.MultiplePlayerSelector;
 import net.impactdev.impactor.forge.commands.implementation.data.SingleEntitySelector;
 import net.impactdev.impactor.forge.commands.implementation.data.SinglePlayerSelector;
+import net.impactdev.impactor.forge.commands.implementation.internal.EntityIndex;
+import net.impactdev.impactor.forge.commands.implementation.internal.SelectorEvaluator;
+import net.impactdev.impactor.forge.commands.implementation.internal.SharedParsers;
+import net.impactdev.impactor.forge.commands.implementation.internal.WorldSnapshot;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.commands.SharedSuggestionProvider;
@@ -52,7 +58,9 @@ import net.minecraft.world.phys.Vec2;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.server.ServerLifecycleHooks;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.List;
 import java.util.function.Function;
 
 public class ForgeServerCommandManager extends ForgeCloudCommandManager<CommandSource, CommandSourceStack> {
@@ -69,6 +77,8 @@ public class ForgeServerCommandManager extends ForgeCloudCommandManager<CommandS
             "cloud:registration-environment"
     );
 
+    private volatile @Nullable TimedExecutionCoordinator timings;
+
     /**
      * Create a new command manager instance
      *
@@ -107,10 +117,13 @@ public class ForgeServerCommandManager extends ForgeCloudCommandManager<CommandS
         );
 
         this.registerParsers();
+        EntityIndex.initialize();
+        WorldSnapshot.initialize();
+        SelectorEvaluator.initialize();
     }
 
     private void registerParsers() {
-        this.getParserRegistry().registerParserSupplier(TypeToken.get(Message.class), params -> ForgeArgumentParsers.message());
+        this.registerSharedParserSupplier(TypeToken.get(Message.class), ForgeArgumentParsers::message);
 
         // Location arguments
         this.getParserRegistry().registerAnnotationMapper(
@@ -119,49 +132,67 @@ public class ForgeServerCommandManager extends ForgeCloudCommandManager<CommandS
         );
         this.getParserRegistry().registerParserSupplier(
                 TypeToken.get(Coordinates.class),
-                params -> ForgeArgumentParsers.vec3(params.get(
-                        ForgeParserParameters.CENTER_INTEGERS,
-                        false
-                ))
+                params -> {
+                    final boolean center = params.get(ForgeParserParameters.CENTER_INTEGERS, false);
+                    return SharedParsers.shared(
+                            center ? "vec3:centered" : "vec3",
+                            () -> ForgeArgumentParsers.vec3(center)
+                    );
+                }
         );
         this.getParserRegistry().registerParserSupplier(
                 TypeToken.get(Coordinates.CoordinatesXZ.class),
-                params -> ForgeArgumentParsers.vec2(params.get(
-                        ForgeParserParameters.CENTER_INTEGERS,
-                        false
-                ))
-        );
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(Coordinates.BlockCoordinates.class),
-                params -> ForgeArgumentParsers.blockPos()
-        );
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(Coordinates.ColumnCoordinates.class),
-                params -> ForgeArgumentParsers.columnPos()
+                params -> {
+                    final boolean center = params.get(ForgeParserParameters.CENTER_INTEGERS, false);
+                    return SharedParsers.shared(
+                            center ? "vec2:centered" : "vec2",
+                            () -> ForgeArgumentParsers.vec2(center)
+                    );
+                }
         );
+        this.registerSharedParserSupplier(TypeToken.get(Coordinates.BlockCoordinates.class), ForgeArgumentParsers::blockPos);
+        this.registerSharedParserSupplier(TypeToken.get(Coordinates.ColumnCoordinates.class), ForgeArgumentParsers::columnPos);
 
         // Entity selectors
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(SinglePlayerSelector.class),
-                params -> ForgeArgumentParsers.singlePlayerSelector()
-        );
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(MultiplePlayerSelector.class),
-                params -> ForgeArgumentParsers.multiplePlayerSelector()
-        );
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(SingleEntitySelector.class),
-                params -> ForgeArgumentParsers.singleEntitySelector()
-        );
-        this.getParserRegistry().registerParserSupplier(
-                TypeToken.get(MultipleEntitySelector.class),
-                params -> ForgeArgumentParsers.multipleEntitySelector()
-        );
+        this.registerSharedParserSupplier(TypeToken.get(SinglePlayerSelector.class), ForgeArgumentParsers::singlePlayerSelector);
+        this.registerSharedParserSupplier(TypeToken.get(MultiplePlayerSelector.class), ForgeArgumentParsers::multiplePlayerSelector);
+        this.registerSharedParserSupplier(TypeToken.get(SingleEntitySelector.class), ForgeArgumentParsers::singleEntitySelector);
+        this.registerSharedParserSupplier(TypeToken.get(MultipleEntitySelector.class), ForgeArgumentParsers::multipleEntitySelector);
+    }
+
+    /**
+     * Removes every command registered under the given root literal from the server's command
+     * dispatcher, without requiring a full rebuild of the command tree.
+     *
+     * @param root The root literal of the commands to remove
+     * @return True if any commands were registered under the given root
+     */
+    public boolean unregisterRootCommand(final @NonNull String root) {
+        return ((ForgeServerCommandRegistrationHandler<CommandSource>) this.getCommandRegistrationHandler()).unregisterRootCommand(root);
+    }
+
+    /**
+     * Sets the coordinator which records the time taken to compute suggestions.
+     *
+     * @param timings The coordinator recording suggestion timings
+     */
+    public void timings(final @NonNull TimedExecutionCoordinator timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public @NonNull List<@NonNull String> suggest(final @NonNull CommandSource sender, final @NonNull String input) {
+        final @Nullable TimedExecutionCoordinator timings = this.timings;
+        if(timings == null) {
+            return super.suggest(sender, input);
+        }
+
+        return timings.suggest(sender, input, () -> super.suggest(sender, input));
     }
 
     @Override
     public boolean hasPermission(@NonNull CommandSource sender, @NonNull String permission) {
-        return Impactor.instance().services().provide(PermissionsService.class).hasPermission(sender.source(), permission);
+        return PermissionTimer.time(() -> Impactor.instance().services().provide(PermissionsService.class).hasPermission(sender.source(), permission));
     }
 
 }
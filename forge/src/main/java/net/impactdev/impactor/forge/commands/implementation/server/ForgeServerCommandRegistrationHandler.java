@@ -28,25 +28,71 @@ package net.impactdev.impactor.forge.commands.implementation.server;
 import cloud.commandframework.Command;
 import cloud.commandframework.arguments.StaticArgument;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.LiteralCommandNode;
 import com.mojang.brigadier.tree.RootCommandNode;
 import net.impactdev.impactor.forge.commands.implementation.ForgeCloudCommandManager;
 import net.impactdev.impactor.forge.commands.implementation.ForgeCommandRegistrationHandler;
 import net.impactdev.impactor.forge.commands.implementation.ForgeExecutor;
+import net.impactdev.impactor.forge.commands.implementation.arguments.parsers.ForgeArgumentParsers;
 import net.impactdev.impactor.forge.commands.mixins.CommandSelectionAccessor_Cloud;
+import net.minecraft.commands.CommandBuildContext;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.TickTask;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.server.ServerLifecycleHooks;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Forwards cloud commands to the server's brigadier dispatcher.
+ *
+ * <p>Commands are grouped by their root literal. Once the dispatcher has been made available through
+ * {@link RegisterCommandsEvent}, registering or unregistering a command only rebuilds the subtree of
+ * the affected root, and only players who could see that root before or after the change are sent
+ * a new command tree. Changes are queued and applied together by a single task on the server thread,
+ * so registering many commands at once rebuilds each affected root, and resends each affected player's
+ * tree, only once. Changes made before the server is available are applied once it has started.</p>
+ *
+ * <p>Brigadier merges nodes sharing a literal, so a root may also hold children contributed by another
+ * command manager, another mod, or vanilla. When a root is rebuilt or unregistered, only the children this
+ * handler inserted are detached, and any other children remain reachable. Children which were themselves
+ * merged with a same-named child of another owner cannot be separated again, nor can the executor our
+ * node placed on a root owned by someone else. These are left in place until the dispatcher is next
+ * rebuilt through {@link RegisterCommandsEvent}.</p>
+ *
+ * @param <C> The command sender type
+ */
 public class ForgeServerCommandRegistrationHandler<C> extends ForgeCommandRegistrationHandler<C, CommandSourceStack> {
 
-    private final Set<Command<C>> registered = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Command<C>>> registered = new ConcurrentHashMap<>();
+    private final Map<String, List<Insertion>> inserted = new ConcurrentHashMap<>();
+    private final Set<CommandNode<CommandSourceStack>> remainders = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile @Nullable CommandDispatcher<CommandSourceStack> dispatcher;
+    private volatile @Nullable CommandSelectionAccessor_Cloud side;
+    private volatile @Nullable CommandBuildContext context;
 
     public void initialize(final ForgeCloudCommandManager<C, CommandSourceStack> manager) {
         super.initialize(manager);
@@ -59,38 +105,211 @@ public class ForgeServerCommandRegistrationHandler<C> extends ForgeCommandRegist
         this.registerAllCommands(event);
     }
 
+    @SubscribeEvent
+    public void onServerStarted(ServerStartedEvent event) {
+        if(!this.pending.isEmpty()) {
+            this.schedule();
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        this.dispatcher = null;
+        this.side = null;
+        this.context = null;
+        this.inserted.clear();
+        this.remainders.clear();
+        this.pending.clear();
+        this.scheduled.set(false);
+    }
+
     @Override
     public boolean registerCommand(@NonNull Command<?> command) {
-        return this.registered.add((Command<C>) command);
+        final Command<C> target = (Command<C>) command;
+        final String root = this.root(target).getName();
+
+        if(!this.registered.computeIfAbsent(root, key -> ConcurrentHashMap.newKeySet()).add(target)) {
+            return false;
+        }
+
+        this.invalidate(root);
+
+        return true;
+    }
+
+    /**
+     * Removes every command under the given root literal from the dispatcher. Players who had access to
+     * the root will be sent an updated command tree.
+     *
+     * <p>Cloud 1.7 offers no way to remove a command from its own command tree, so the command will
+     * remain known to cloud, but will no longer be reachable through brigadier.</p>
+     *
+     * @param root The root literal of the commands to remove
+     * @return True if any commands were registered under the given root
+     */
+    public boolean unregisterRootCommand(final @NonNull String root) {
+        if(this.registered.remove(root) == null) {
+            return false;
+        }
+
+        this.invalidate(root);
+
+        return true;
     }
 
-    @SuppressWarnings("ConstantConditions")
     public void registerAllCommands(final @NonNull RegisterCommandsEvent event) {
         this.manager().registrationCalled();
 
         final CommandDispatcher<CommandSourceStack> dispatcher = event.getDispatcher();
-        final CommandSelectionAccessor_Cloud side = (CommandSelectionAccessor_Cloud) (Object) event.getCommandSelection();
+        this.dispatcher = dispatcher;
+        this.side = (CommandSelectionAccessor_Cloud) (Object) event.getCommandSelection();
+        this.context = event.getBuildContext();
+        this.inserted.clear();
+        this.remainders.clear();
 
-        for(final Command<C> command : this.registered) {
-            final Commands.CommandSelection environment = command.getCommandMeta().getOrDefault(
-                    ForgeServerCommandManager.META_REGISTRATION_ENVIRONMENT,
-                    Commands.CommandSelection.ALL
-            );
+        // Every root is inserted below, so no queued change remains to be applied
+        this.pending.clear();
+
+        this.withBuildContext(() -> {
+            for(final String root : this.registered.keySet()) {
+                this.insert(dispatcher.getRoot(), root);
+            }
+        });
+    }
+
+    private void withBuildContext(final Runnable action) {
+        final @Nullable CommandBuildContext context = this.context;
+        if(context == null) {
+            action.run();
+            return;
+        }
+
+        ForgeArgumentParsers.ContextualArgumentTypeProvider.withBuildContext(this.manager(), context, false, action);
+    }
+
+    /**
+     * Queues the given root to be rebuilt. Until the dispatcher is first made available, there is nothing to
+     * rebuild, as every root is inserted once it is.
+     */
+    private void invalidate(final String root) {
+        if(this.dispatcher == null) {
+            return;
+        }
+
+        this.pending.add(root);
+        this.schedule();
+    }
+
+    /**
+     * Schedules the queued roots to be rebuilt by a task on the server thread, unless such a task is already
+     * scheduled. The task is always queued, even from the server thread, so changes made in succession are
+     * applied together. Without a server, the roots remain queued until it has started.
+     */
+    private void schedule() {
+        final @Nullable MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(server != null && this.scheduled.compareAndSet(false, true)) {
+            server.tell(new TickTask(server.getTickCount(), this::rebuild));
+        }
+    }
+
+    private void rebuild() {
+        this.scheduled.set(false);
+
+        final @Nullable CommandDispatcher<CommandSourceStack> dispatcher = this.dispatcher;
+        if(dispatcher == null) {
+            return;
+        }
+
+        final List<String> roots = new ArrayList<>();
+        for(final Iterator<String> iterator = this.pending.iterator(); iterator.hasNext(); ) {
+            roots.add(iterator.next());
+            iterator.remove();
+        }
+
+        if(roots.isEmpty()) {
+            return;
+        }
+
+        this.withBuildContext(() -> {
+            final List<CommandNode<CommandSourceStack>> previous = new ArrayList<>();
+            final List<CommandNode<CommandSourceStack>> current = new ArrayList<>();
+            for(final String root : roots) {
+                previous.addAll(this.remove(dispatcher.getRoot(), root));
+                current.addAll(this.insert(dispatcher.getRoot(), root));
+            }
+
+            this.resync(previous, current);
+        });
+    }
+
+    private List<CommandNode<CommandSourceStack>> remove(final RootCommandNode<CommandSourceStack> dispatcher, final String root) {
+        final @Nullable List<Insertion> insertions = this.inserted.remove(root);
+        if(insertions == null) {
+            return Collections.emptyList();
+        }
 
-            if((environment == Commands.CommandSelection.INTEGRATED && !side.integrated()) ||
-                    (environment == Commands.CommandSelection.DEDICATED && !side.dedicated()))
-            {
+        final List<CommandNode<CommandSourceStack>> removed = new ArrayList<>();
+        for(final Insertion insertion : insertions) {
+            final @Nullable CommandNode<CommandSourceStack> existing = dispatcher.getChild(insertion.name);
+            if(existing == null) {
                 continue;
             }
 
-            this.registerCommand(dispatcher.getRoot(), command);
+            removed.add(insertion.node);
+            if(existing != insertion.node) {
+                // Our node was merged into one owned by someone else, so only detach what we contributed
+                for(final CommandNode<CommandSourceStack> child : insertion.children) {
+                    if(existing.getChild(child.getName()) == child) {
+                        removeChild(existing, child.getName());
+                    }
+                }
+
+                continue;
+            }
+
+            removeChild(dispatcher, insertion.name);
+            final List<CommandNode<CommandSourceStack>> foreign = new ArrayList<>();
+            for(final CommandNode<CommandSourceStack> child : existing.getChildren()) {
+                if(!insertion.children.contains(child)) {
+                    foreign.add(child);
+                }
+            }
+
+            if(!foreign.isEmpty()) {
+                final LiteralCommandNode<CommandSourceStack> remainder = this.remainder(insertion.name, foreign);
+                this.remainders.add(remainder);
+                dispatcher.addChild(remainder);
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Builds a node to hold the children other owners merged into a node we are removing. The node is
+     * usable by any source able to use one of those children, and is replaced by our node should the
+     * root be inserted again.
+     */
+    private LiteralCommandNode<CommandSourceStack> remainder(final String name, final List<CommandNode<CommandSourceStack>> children) {
+        final LiteralArgumentBuilder<CommandSourceStack> builder = LiteralArgumentBuilder.<CommandSourceStack>literal(name)
+                .requires(source -> this.canUseAny(children, source));
+        for(final CommandNode<CommandSourceStack> child : children) {
+            builder.then(child);
         }
+
+        return builder.build();
     }
 
-    private void registerCommand(final RootCommandNode<CommandSourceStack> dispatcher, final Command<C> command) {
-        final StaticArgument<C> first = ((StaticArgument<C>) command.getArguments().get(0));
+    private List<CommandNode<CommandSourceStack>> insert(final RootCommandNode<CommandSourceStack> dispatcher, final String root) {
+        final @Nullable Set<Command<C>> commands = this.registered.get(root);
+        if(commands == null || commands.isEmpty() || commands.stream().noneMatch(this::isEnvironmentSupported)) {
+            return Collections.emptyList();
+        }
+
+        final Command<C> command = commands.iterator().next();
+        final StaticArgument<C> first = this.root(command);
 
-        final CommandNode<CommandSourceStack> baseNode = this.manager().brigadierManager().createLiteralCommandNode(
+        final LiteralCommandNode<CommandSourceStack> baseNode = this.manager().brigadierManager().createLiteralCommandNode(
                 first.getName(),
                 command,
                 (src, perm) -> this.manager().hasPermission(
@@ -101,10 +320,113 @@ public class ForgeServerCommandRegistrationHandler<C> extends ForgeCommandRegist
                 new ForgeExecutor<>(this.manager(), CommandSourceStack::getTextName, CommandSourceStack::sendFailure)
         );
 
-        dispatcher.addChild(baseNode);
+        final List<CommandNode<CommandSourceStack>> nodes = new ArrayList<>();
+        final List<Insertion> insertions = new ArrayList<>();
+
+        final CommandNode<CommandSourceStack> canonical = this.attach(dispatcher, baseNode, insertions);
+        nodes.add(canonical);
 
         for (final String alias : first.getAlternativeAliases()) {
-            dispatcher.addChild(buildRedirect(alias, baseNode));
+            nodes.add(this.attach(dispatcher, buildRedirect(alias, canonical), insertions));
+        }
+
+        this.inserted.put(root, insertions);
+        return nodes;
+    }
+
+    /**
+     * Attaches the node to the dispatcher, recording what was inserted so that it can later be removed
+     * without disturbing the children of other owners.
+     *
+     * @return The node now attached under the node's name, which is an existing node if ours was merged into it
+     */
+    private CommandNode<CommandSourceStack> attach(
+            final RootCommandNode<CommandSourceStack> dispatcher,
+            final LiteralCommandNode<CommandSourceStack> node,
+            final List<Insertion> insertions
+    ) {
+        final Insertion insertion = new Insertion(node);
+        insertions.add(insertion);
+
+        // Take the place of a node left behind by an earlier removal, keeping the children it held
+        final @Nullable CommandNode<CommandSourceStack> existing = dispatcher.getChild(node.getName());
+        if(existing != null && this.remainders.remove(existing)) {
+            removeChild(dispatcher, node.getName());
+            dispatcher.addChild(node);
+            for(final CommandNode<CommandSourceStack> child : existing.getChildren()) {
+                node.addChild(child);
+            }
+
+            return node;
+        }
+
+        dispatcher.addChild(node);
+        return dispatcher.getChild(node.getName());
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private boolean isEnvironmentSupported(final Command<C> command) {
+        final @Nullable CommandSelectionAccessor_Cloud side = this.side;
+        if(side == null) {
+            return true;
+        }
+
+        final Commands.CommandSelection environment = command.getCommandMeta().getOrDefault(
+                ForgeServerCommandManager.META_REGISTRATION_ENVIRONMENT,
+                Commands.CommandSelection.ALL
+        );
+
+        return !((environment == Commands.CommandSelection.INTEGRATED && !side.integrated()) ||
+                (environment == Commands.CommandSelection.DEDICATED && !side.dedicated()));
+    }
+
+    /**
+     * Sends an updated command tree to every player who was able to use one of the previous nodes,
+     * or is able to use one of the current nodes. Players who could see neither have an unchanged
+     * tree, and are skipped.
+     */
+    private void resync(final Collection<CommandNode<CommandSourceStack>> previous, final Collection<CommandNode<CommandSourceStack>> current) {
+        final @Nullable MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if(server == null || (previous.isEmpty() && current.isEmpty())) {
+            return;
+        }
+
+        for(final ServerPlayer player : server.getPlayerList().getPlayers()) {
+            final CommandSourceStack source = player.createCommandSourceStack();
+            if(this.canUseAny(previous, source) || this.canUseAny(current, source)) {
+                server.getCommands().sendCommands(player);
+            }
+        }
+    }
+
+    private boolean canUseAny(final Collection<CommandNode<CommandSourceStack>> nodes, final CommandSourceStack source) {
+        for(final CommandNode<CommandSourceStack> node : nodes) {
+            if(node.canUse(source)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private StaticArgument<C> root(final Command<C> command) {
+        return (StaticArgument<C>) command.getArguments().get(0);
+    }
+
+    /**
+     * A node inserted into the dispatcher by this handler, alongside the children it contributed. Children
+     * are compared by identity, as other owners may contribute children of the same name.
+     */
+    private static final class Insertion {
+
+        private final String name;
+        private final CommandNode<CommandSourceStack> node;
+        private final Set<CommandNode<CommandSourceStack>> children = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Insertion(final CommandNode<CommandSourceStack> node) {
+            this.name = node.getName();
+            this.node = node;
+            this.children.addAll(node.getChildren());
         }
     }
 
@@ -27,16 +27,75 @@ package net.impactdev.impactor.forge.commands.mixins;
 
 import net.impactdev.impactor.forge.commands.implementation.internal.EntitySelectorAccess;
 import net.minecraft.commands.arguments.selector.EntitySelector;
+import net.minecraft.commands.arguments.selector.EntitySelectorParser;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.entity.EntityTypeTest;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
 @Mixin(EntitySelector.class)
 public abstract class EntitySelectorMixin_Cloud implements EntitySelectorAccess {
 
+    @Shadow
+    @Final
+    private Function<Vec3, Vec3> position;
+
+    @Shadow
+    @Final
+    private @Nullable AABB aabb;
+
+    @Shadow
+    @Final
+    private @Nullable String playerName;
+
+    @Shadow
+    @Final
+    private @Nullable UUID entityUUID;
+
+    @Shadow
+    private EntityTypeTest<Entity, ?> type;
+
+    @Shadow
+    @Final
+    private int maxResults;
+
+    @Shadow
+    @Final
+    private BiConsumer<Vec3, List<? extends Entity>> order;
+
+    @Shadow
+    private Predicate<Entity> getPredicate(Vec3 origin) {
+        throw new AssertionError();
+    }
+
+    @Shadow
+    private int getResultLimit() {
+        throw new AssertionError();
+    }
+
+    @Shadow
+    private <T extends Entity> List<T> sortAndLimit(Vec3 origin, List<T> entities) {
+        throw new AssertionError();
+    }
+
     @Unique
     private String inputString;
 
+    @Unique
+    private boolean readsSharedState;
+
     @Override
     public @NonNull String inputString() {
         return this.inputString;
@@ -47,4 +106,69 @@ public abstract class EntitySelectorMixin_Cloud implements EntitySelectorAccess
         this.inputString = inputString;
     }
 
+    @Override
+    public boolean readsSharedState() {
+        return this.readsSharedState;
+    }
+
+    @Override
+    public void readsSharedState(final boolean readsSharedState) {
+        this.readsSharedState = readsSharedState;
+    }
+
+    @Override
+    public @NonNull Function<Vec3, Vec3> position() {
+        return this.position;
+    }
+
+    @Override
+    public @Nullable AABB aabb() {
+        return this.aabb;
+    }
+
+    @Override
+    public @Nullable String playerName() {
+        return this.playerName;
+    }
+
+    @Override
+    public @Nullable UUID entityUUID() {
+        return this.entityUUID;
+    }
+
+    @Override
+    public @NonNull EntityTypeTest<Entity, ?> type() {
+        return this.type;
+    }
+
+    @Override
+    public @NonNull Predicate<Entity> predicate(final @NonNull Vec3 origin) {
+        return this.getPredicate(origin);
+    }
+
+    @Override
+    public int resultLimit() {
+        return this.getResultLimit();
+    }
+
+    @Override
+    public <T extends Entity> @NonNull List<T> sortAndLimitResults(final @NonNull Vec3 origin, final @NonNull List<T> entities) {
+        return this.sortAndLimit(origin, entities);
+    }
+
+    @Override
+    public int maxResults() {
+        return this.maxResults;
+    }
+
+    @Override
+    public @NonNull BiConsumer<Vec3, List<? extends Entity>> order() {
+        return this.order;
+    }
+
+    @Override
+    public boolean unordered() {
+        return this.order == EntitySelectorParser.ORDER_ARBITRARY && this.maxResults == Integer.MAX_VALUE;
+    }
+
 }
@@ -26,20 +26,37 @@
 package net.impactdev.impactor.forge.commands.mixins;
 
 import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.impactdev.impactor.forge.commands.implementation.internal.EntitySelectorAccess;
 import net.minecraft.commands.arguments.selector.EntitySelector;
 import net.minecraft.commands.arguments.selector.EntitySelectorParser;
+import net.minecraft.commands.arguments.selector.options.EntitySelectorOptions;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+import java.util.Set;
+
 @Mixin(EntitySelectorParser.class)
 abstract class EntitySelectorParser_Cloud {
 
+    /**
+     * The vanilla options whose predicates only read fields of an entity, rather than iterating collections
+     * the server thread may be modifying, such as its tags, scores, team, advancements, or NBT. Any other
+     * option, including those registered by mods, is assumed to read such shared state.
+     */
+    @Unique
+    private static final Set<String> FIELD_OPTIONS = Set.of(
+            "name", "distance", "level", "x", "y", "z", "dx", "dy", "dz",
+            "x_rotation", "y_rotation", "limit", "sort", "gamemode", "type"
+    );
+
     @Shadow
     private int startPosition;
 
@@ -47,11 +64,34 @@ abstract class EntitySelectorParser_Cloud {
     @Final
     private StringReader reader;
 
+    @Unique
+    private boolean readsSharedState;
+
+    @Redirect(
+            method = "parseOptions",
+            at = @At(
+                    value = "INVOKE",
+                    target = "Lnet/minecraft/commands/arguments/selector/options/EntitySelectorOptions;get(Lnet/minecraft/commands/arguments/selector/EntitySelectorParser;Ljava/lang/String;I)Lnet/minecraft/commands/arguments/selector/options/EntitySelectorOptions$Modifier;"
+            )
+    )
+    private EntitySelectorOptions.Modifier recordOption(
+            final EntitySelectorParser parser,
+            final String option,
+            final int cursor
+    ) throws CommandSyntaxException {
+        if(!FIELD_OPTIONS.contains(option)) {
+            this.readsSharedState = true;
+        }
+
+        return EntitySelectorOptions.get(parser, option, cursor);
+    }
+
     @Inject(method = "parse", at = @At("RETURN"))
     public void setInputString(final @NonNull CallbackInfoReturnable<EntitySelector> cir) {
         final EntitySelector selector = cir.getReturnValue();
         final String inputString = this.reader.getString().substring(this.startPosition, this.reader.getCursor());
         ((EntitySelectorAccess) selector).inputString(inputString);
+        ((EntitySelectorAccess) selector).readsSharedState(this.readsSharedState);
     }
 
 }
@@ -32,6 +32,9 @@ import org.spongepowered.asm.mixin.gen.Accessor;
 @Mixin(MessageArgument.Message.class)
 public interface MessageArgumentMessageAccess_Cloud {
 
+    @Accessor("text")
+    String accessor$text();
+
     @Accessor("parts")
     MessageArgument.Part[] accessor$parts();
 
@@ -0,0 +1,10 @@
+plugins {
+    id("impactdev.base-conventions")
+    id("impactdev.publishing-conventions")
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(8))
+    }
+}
@@ -0,0 +1,639 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.processor.commands;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@code CommandRegistrar} for each type declaring methods annotated with cloud's
+ * {@code @CommandMethod}. The generated registrar builds each command through cloud's command builders,
+ * binding arguments and flags directly to the annotated method, so the type no longer needs to be
+ * parsed reflectively at runtime.
+ *
+ * <p>Only a subset of cloud's annotations is supported. Commands declaring custom parsers, suggestion
+ * providers, injected parameters, or any other annotation the processor does not understand cause
+ * their declaring type to be skipped, in which case it will be parsed by cloud's annotation parser
+ * at runtime instead. The same applies to types with any other member carrying a cloud annotation,
+ * such as a {@code @Parser} or {@code @Suggestions} method, as only the annotation parser registers
+ * those members.</p>
+ *
+ * <p>Registrars are listed in {@code META-INF/services}, merged with any registrars listed by earlier
+ * compilations whose types can still be resolved, so incremental builds retain them.</p>
+ */
+@SupportedAnnotationTypes(CommandRegistrarProcessor.COMMAND_METHOD)
+public final class CommandRegistrarProcessor extends AbstractProcessor {
+
+    static final String COMMAND_METHOD = "cloud.commandframework.annotations.CommandMethod";
+
+    private static final String CLOUD_ANNOTATIONS = "cloud.commandframework.annotations.";
+    private static final String ARGUMENT = CLOUD_ANNOTATIONS + "Argument";
+    private static final String FLAG = CLOUD_ANNOTATIONS + "Flag";
+    private static final String PERMISSION = CLOUD_ANNOTATIONS + "CommandPermission";
+    private static final String DESCRIPTION = CLOUD_ANNOTATIONS + "CommandDescription";
+    private static final String HIDDEN = CLOUD_ANNOTATIONS + "Hidden";
+    private static final String CONTAINER = CLOUD_ANNOTATIONS + "CommandContainer";
+
+    private static final String COMMAND_SOURCE = "net.impactdev.impactor.api.commands.CommandSource";
+    private static final String COMMAND_CONTEXT = "cloud.commandframework.context.CommandContext";
+    private static final String REGISTRAR = "net.impactdev.impactor.api.commands.registration.CommandRegistrar";
+
+    private static final Set<String> METHOD_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            COMMAND_METHOD, PERMISSION, DESCRIPTION, HIDDEN, "java.lang.Deprecated"
+    ));
+    private static final Set<String> PARAMETER_ANNOTATIONS = new HashSet<>(Arrays.asList(ARGUMENT, FLAG));
+
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+        final TypeElement marker = this.elements().getTypeElement(COMMAND_METHOD);
+        if(marker != null) {
+            final Map<TypeElement, List<ExecutableElement>> containers = new LinkedHashMap<>();
+            for(final Element element : round.getElementsAnnotatedWith(marker)) {
+                if(element.getKind() == ElementKind.METHOD) {
+                    containers.computeIfAbsent((TypeElement) element.getEnclosingElement(), type -> new ArrayList<>())
+                            .add((ExecutableElement) element);
+                }
+            }
+
+            for(final Map.Entry<TypeElement, List<ExecutableElement>> container : containers.entrySet()) {
+                try {
+                    this.generate(container.getKey(), container.getValue());
+                } catch (UnsupportedCommandException e) {
+                    this.processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.NOTE,
+                            "Commands of " + container.getKey().getQualifiedName() + " will be parsed reflectively: " + e.getMessage(),
+                            container.getKey()
+                    );
+                } catch (IOException e) {
+                    this.processingEnv.getMessager().printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Failed to write command registrar: " + e.getMessage(),
+                            container.getKey()
+                    );
+                }
+            }
+        }
+
+        if(round.processingOver() && !this.generated.isEmpty()) {
+            this.writeServices();
+        }
+
+        return false;
+    }
+
+    private void generate(final TypeElement type, final List<ExecutableElement> methods) throws UnsupportedCommandException, IOException {
+        this.validate(type);
+
+        final List<String> commands = new ArrayList<>();
+        for(final ExecutableElement method : methods) {
+            commands.add(this.command(method));
+        }
+
+        final String pkg = this.elements().getPackageOf(type).getQualifiedName().toString();
+        final String name = this.registrarName(type);
+        final String qualified = pkg.isEmpty() ? name : pkg + "." + name;
+        final String target = type.getQualifiedName().toString();
+
+        final StringBuilder source = new StringBuilder();
+        if(!pkg.isEmpty()) {
+            source.append("package ").append(pkg).append(";\n\n");
+        }
+
+        source.append("/**\n")
+                .append(" * Registers the annotated commands of {@link ").append(target).append("}.\n")
+                .append(" *\n")
+                .append(" * <p>Generated by the Impactor command processor, do not modify.</p>\n")
+                .append(" */\n")
+                .append("public final class ").append(name).append(" implements ").append(REGISTRAR).append("<").append(target).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public Class<").append(target).append("> type() {\n")
+                .append("        return ").append(target).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void register(\n")
+                .append("            final cloud.commandframework.CommandManager<").append(COMMAND_SOURCE).append("> manager,\n")
+                .append("            final ").append(target).append(" instance\n")
+                .append("    ) {\n");
+
+        for(final String command : commands) {
+            source.append(command);
+        }
+
+        source.append("    }\n\n}\n");
+
+        final JavaFileObject file = this.processingEnv.getFiler().createSourceFile(qualified, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+
+        this.generated.add(qualified);
+    }
+
+    private void validate(final TypeElement type) throws UnsupportedCommandException {
+        Element current = type;
+        while(current instanceof TypeElement) {
+            if(current.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedCommandException("the type or an enclosing type is private");
+            }
+
+            if(!((TypeElement) current).getTypeParameters().isEmpty()) {
+                throw new UnsupportedCommandException("the type or an enclosing type declares type parameters");
+            }
+
+            current = current.getEnclosingElement();
+        }
+
+        for(final AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            final String name = this.name(annotation);
+            if(name.startsWith(CLOUD_ANNOTATIONS) && !name.equals(CONTAINER)) {
+                throw new UnsupportedCommandException("type level annotation @" + name + " is not supported");
+            }
+        }
+
+        for(final Element member : type.getEnclosedElements()) {
+            if(member.getKind().isClass() || member.getKind().isInterface() || this.find(member, COMMAND_METHOD) != null) {
+                continue;
+            }
+
+            for(final AnnotationMirror annotation : member.getAnnotationMirrors()) {
+                final String name = this.name(annotation);
+                if(name.startsWith(CLOUD_ANNOTATIONS)) {
+                    throw new UnsupportedCommandException("annotation @" + name + " on member " + member.getSimpleName() + " is not supported");
+                }
+            }
+        }
+    }
+
+    private String command(final ExecutableElement method) throws UnsupportedCommandException {
+        final String target = method.getSimpleName().toString();
+        if(method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedCommandException(target + " must be a non-private instance method");
+        }
+
+        if(!method.getTypeParameters().isEmpty()) {
+            throw new UnsupportedCommandException(target + " declares type parameters");
+        }
+
+        this.validate(method, METHOD_ANNOTATIONS);
+
+        final AnnotationMirror definition = this.find(method, COMMAND_METHOD);
+        this.explicit(definition, "value", "requiredSender");
+        final CommandSyntax syntax = CommandSyntax.parse((String) this.value(definition, "value"));
+
+        final Map<String, VariableElement> arguments = new LinkedHashMap<>();
+        final List<String> flags = new ArrayList<>();
+        final List<String> invocation = new ArrayList<>();
+        TypeMirror sender = null;
+
+        for(final VariableElement parameter : method.getParameters()) {
+            this.validate(parameter, PARAMETER_ANNOTATIONS);
+
+            final TypeMirror type = parameter.asType();
+            final AnnotationMirror argument = this.find(parameter, ARGUMENT);
+            final AnnotationMirror flag = this.find(parameter, FLAG);
+
+            if(argument != null) {
+                this.explicit(argument, "value", "defaultValue", "description");
+                final String name = this.argumentName(argument, parameter);
+                if(arguments.put(name, parameter) != null) {
+                    throw new UnsupportedCommandException(target + " binds argument " + name + " more than once");
+                }
+
+                invocation.add("\u0000" + name);
+            } else if(flag != null) {
+                this.explicit(flag, "value", "aliases", "description");
+                final String name = (String) this.value(flag, "value");
+                flags.add(this.flag(flag, name, type));
+
+                if(this.isBoolean(type)) {
+                    invocation.add("context.flags().isPresent(" + quote(name) + ")");
+                } else {
+                    invocation.add("context.flags().<" + this.boxed(type) + ">getValue(" + quote(name) + ", " + this.absent(type) + ")");
+                }
+            } else if(this.types().isSameType(this.types().erasure(type), this.erasure(COMMAND_CONTEXT))) {
+                invocation.add("context");
+            } else if(this.types().isAssignable(this.erasure(COMMAND_SOURCE), type)) {
+                invocation.add("context.getSender()");
+            } else if(this.types().isAssignable(type, this.erasure(COMMAND_SOURCE))) {
+                sender = type;
+                invocation.add("(" + this.type(type) + ") context.getSender()");
+            } else {
+                throw new UnsupportedCommandException("parameter " + parameter.getSimpleName() + " of " + target + " requires injection");
+            }
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        final Set<String> bound = new HashSet<>();
+        for(final CommandSyntax.Token token : syntax.tokens()) {
+            if(token.kind() == CommandSyntax.Kind.LITERAL) {
+                builder.append(builder.length() == 0 ? "        manager.command(manager.commandBuilder(" : "\n                .literal(")
+                        .append(quote(token.name()));
+                for(final String alias : token.aliases()) {
+                    builder.append(", ").append(quote(alias));
+                }
+                builder.append(")");
+                continue;
+            }
+
+            final VariableElement parameter = arguments.get(token.name());
+            if(parameter == null) {
+                throw new UnsupportedCommandException(target + " does not bind argument " + token.name());
+            }
+
+            bound.add(token.name());
+            builder.append("\n                .argument(").append(this.argument(parameter, token));
+        }
+
+        if(!bound.containsAll(arguments.keySet())) {
+            throw new UnsupportedCommandException(target + " binds arguments missing from its syntax");
+        }
+
+        for(final String flag : flags) {
+            builder.append("\n                .flag(").append(flag).append(")");
+        }
+
+        final AnnotationMirror permission = this.find(method, PERMISSION);
+        if(permission != null) {
+            builder.append("\n                .permission(").append(quote((String) this.value(permission, "value"))).append(")");
+        }
+
+        final AnnotationMirror description = this.find(method, DESCRIPTION);
+        if(description != null) {
+            builder.append("\n                .meta(cloud.commandframework.meta.CommandMeta.DESCRIPTION, ")
+                    .append(quote((String) this.value(description, "value")))
+                    .append(")");
+        }
+
+        if(this.find(method, HIDDEN) != null) {
+            builder.append("\n                .hidden()");
+        }
+
+        final TypeMirror required = (TypeMirror) this.value(definition, "requiredSender");
+        if(!this.types().isSameType(required, this.erasure("java.lang.Object"))) {
+            sender = required;
+        }
+
+        if(sender != null) {
+            builder.append("\n                .senderType(").append(this.type(this.types().erasure(sender))).append(".class)");
+        }
+
+        final StringBuilder call = new StringBuilder("instance.").append(target).append("(");
+        for(int i = 0; i < invocation.size(); i++) {
+            final String value = invocation.get(i);
+            if(i > 0) {
+                call.append(", ");
+            }
+
+            if(value.startsWith("\u0000")) {
+                call.append(this.lookup(arguments.get(value.substring(1)), value.substring(1), syntax));
+            } else {
+                call.append(value);
+            }
+        }
+        call.append(")");
+
+        if(method.getThrownTypes().isEmpty()) {
+            builder.append("\n                .handler(context -> ").append(call).append("));\n");
+        } else {
+            builder.append("\n                .handler(context -> {\n")
+                    .append("                    try {\n")
+                    .append("                        ").append(call).append(";\n")
+                    .append("                    } catch (RuntimeException e) {\n")
+                    .append("                        throw e;\n")
+                    .append("                    } catch (Exception e) {\n")
+                    .append("                        throw new cloud.commandframework.exceptions.CommandExecutionException(e, context);\n")
+                    .append("                    }\n")
+                    .append("                }));\n");
+        }
+
+        return builder.toString();
+    }
+
+    private String argument(final VariableElement parameter, final CommandSyntax.Token token) throws UnsupportedCommandException {
+        final AnnotationMirror argument = this.find(parameter, ARGUMENT);
+        final String defaults = (String) this.value(argument, "defaultValue");
+        final String description = (String) this.value(argument, "description");
+
+        final StringBuilder result = new StringBuilder(this.argumentBuilder(parameter.asType(), token.name()));
+        if(token.kind() == CommandSyntax.Kind.OPTIONAL) {
+            result.append(defaults.isEmpty() ? ".asOptional()" : ".asOptionalWithDefault(" + quote(defaults) + ")");
+        } else if(!defaults.isEmpty()) {
+            throw new UnsupportedCommandException("required argument " + token.name() + " declares a default value");
+        }
+
+        result.append(".build()");
+        if(!description.isEmpty()) {
+            result.append(", cloud.commandframework.ArgumentDescription.of(").append(quote(description)).append(")");
+        }
+
+        return result.append(")").toString();
+    }
+
+    private String flag(final AnnotationMirror flag, final String name, final TypeMirror type) throws UnsupportedCommandException {
+        final StringBuilder result = new StringBuilder("manager.flagBuilder(").append(quote(name)).append(")");
+
+        @SuppressWarnings("unchecked")
+        final List<? extends AnnotationValue> aliases = (List<? extends AnnotationValue>) this.value(flag, "aliases");
+        if(!aliases.isEmpty()) {
+            result.append(".withAliases(");
+            for(int i = 0; i < aliases.size(); i++) {
+                result.append(i > 0 ? ", " : "").append(quote((String) aliases.get(i).getValue()));
+            }
+            result.append(")");
+        }
+
+        final String description = (String) this.value(flag, "description");
+        if(!description.isEmpty()) {
+            result.append(".withDescription(cloud.commandframework.ArgumentDescription.of(").append(quote(description)).append("))");
+        }
+
+        if(!this.isBoolean(type)) {
+            result.append(".withArgument(").append(this.argumentBuilder(type, name)).append(".build())");
+        }
+
+        return result.toString();
+    }
+
+    private String argumentBuilder(final TypeMirror type, final String name) throws UnsupportedCommandException {
+        return "cloud.commandframework.arguments.CommandArgument.<" + COMMAND_SOURCE + ", " + this.boxed(type) + ">ofType("
+                + this.token(type) + ", " + quote(name) + ").manager(manager)";
+    }
+
+    private String lookup(final VariableElement parameter, final String name, final CommandSyntax syntax) throws UnsupportedCommandException {
+        final String type = this.boxed(parameter.asType());
+        for(final CommandSyntax.Token token : syntax.tokens()) {
+            if(token.kind() == CommandSyntax.Kind.OPTIONAL && token.name().equals(name)) {
+                return "context.<" + type + ">getOrDefault(" + quote(name) + ", " + this.absent(parameter.asType()) + ")";
+            }
+        }
+
+        return "context.<" + type + ">get(" + quote(name) + ")";
+    }
+
+    /**
+     * Provides the value passed for an optional argument or flag of the given type when it is absent. Primitive
+     * parameters receive their default value, as null would fail to unbox.
+     */
+    private String absent(final TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN: return "false";
+            case BYTE: return "(byte) 0";
+            case SHORT: return "(short) 0";
+            case CHAR: return "'\\0'";
+            case INT: return "0";
+            case LONG: return "0L";
+            case FLOAT: return "0F";
+            case DOUBLE: return "0D";
+            default: return "null";
+        }
+    }
+
+    private String argumentName(final AnnotationMirror argument, final VariableElement parameter) {
+        final String name = (String) this.value(argument, "value");
+        if(name.isEmpty() || name.startsWith("__")) {
+            return parameter.getSimpleName().toString();
+        }
+
+        return name;
+    }
+
+    private String registrarName(final TypeElement type) {
+        final StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element current = type.getEnclosingElement();
+        while(current instanceof TypeElement) {
+            name.insert(0, current.getSimpleName() + "_");
+            current = current.getEnclosingElement();
+        }
+
+        return name.append("_CommandRegistrar").toString();
+    }
+
+    /**
+     * Ensures the element carries no annotation which could alter how cloud's annotation parser interprets
+     * it. Annotations that are not retained at runtime are invisible to the parser, and are ignored.
+     */
+    private void validate(final Element element, final Set<String> supported) throws UnsupportedCommandException {
+        for(final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            final String name = this.name(annotation);
+            if(supported.contains(name) || name.endsWith(".NonNull") || name.endsWith(".Nullable") || name.endsWith(".NotNull")) {
+                continue;
+            }
+
+            final Retention retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+            if(name.startsWith(CLOUD_ANNOTATIONS) || (retention != null && retention.value() == RetentionPolicy.RUNTIME)) {
+                throw new UnsupportedCommandException("annotation @" + name + " on " + element.getSimpleName() + " is not supported");
+            }
+        }
+    }
+
+    private void explicit(final AnnotationMirror annotation, final String... supported) throws UnsupportedCommandException {
+        final List<String> allowed = Arrays.asList(supported);
+        for(final ExecutableElement attribute : annotation.getElementValues().keySet()) {
+            if(!allowed.contains(attribute.getSimpleName().toString())) {
+                throw new UnsupportedCommandException("@" + this.name(annotation) + "#" + attribute.getSimpleName() + " is not supported");
+            }
+        }
+    }
+
+    private AnnotationMirror find(final Element element, final String name) {
+        for(final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if(this.name(annotation).equals(name)) {
+                return annotation;
+            }
+        }
+
+        return null;
+    }
+
+    private Object value(final AnnotationMirror annotation, final String attribute) {
+        for(final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : this.elements().getElementValuesWithDefaults(annotation).entrySet()) {
+            if(entry.getKey().getSimpleName().contentEquals(attribute)) {
+                return entry.getValue().getValue();
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown attribute " + attribute + " of @" + this.name(annotation));
+    }
+
+    private String name(final AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private boolean isBoolean(final TypeMirror type) {
+        return type.getKind() == TypeKind.BOOLEAN || this.types().isSameType(type, this.erasure("java.lang.Boolean"));
+    }
+
+    private TypeMirror erasure(final String type) {
+        return this.types().erasure(this.elements().getTypeElement(type).asType());
+    }
+
+    /**
+     * Provides the expression used to describe the given type to cloud's parser registry.
+     */
+    private String token(final TypeMirror type) throws UnsupportedCommandException {
+        if(type instanceof DeclaredType && !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return "new io.leangen.geantyref.TypeToken<" + this.type(type) + ">() {}";
+        }
+
+        return this.boxed(type) + ".class";
+    }
+
+    private String boxed(final TypeMirror type) throws UnsupportedCommandException {
+        if(type.getKind().isPrimitive()) {
+            return this.types().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+
+        return this.type(type);
+    }
+
+    /**
+     * Renders the given type as source, without any type-use annotations attached to it.
+     */
+    private String type(final TypeMirror type) throws UnsupportedCommandException {
+        if(type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        }
+
+        if(type instanceof ArrayType) {
+            return this.type(((ArrayType) type).getComponentType()) + "[]";
+        }
+
+        if(type instanceof DeclaredType) {
+            final StringBuilder result = new StringBuilder(((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName());
+            final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if(!arguments.isEmpty()) {
+                result.append("<");
+                for(int i = 0; i < arguments.size(); i++) {
+                    result.append(i > 0 ? ", " : "").append(this.type(arguments.get(i)));
+                }
+                result.append(">");
+            }
+
+            return result.toString();
+        }
+
+        throw new UnsupportedCommandException("type " + type + " cannot be represented");
+    }
+
+    private void writeServices() {
+        final String path = "META-INF/services/" + REGISTRAR;
+        final Set<String> registrars = new TreeSet<>(this.generated);
+        try {
+            final FileObject existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    line = line.trim();
+
+                    // Registrars of types removed since the previous compilation can no longer be resolved
+                    if(!line.isEmpty() && !line.startsWith("#") && this.elements().getTypeElement(line) != null) {
+                        registrars.add(line);
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // No registrars were listed by a previous compilation
+        }
+
+        try {
+            final FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
+            try (Writer writer = file.openWriter()) {
+                for(final String registrar : registrars) {
+                    writer.write(registrar);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write command registrar services: " + e.getMessage());
+        }
+    }
+
+    private Elements elements() {
+        return this.processingEnv.getElementUtils();
+    }
+
+    private Types types() {
+        return this.processingEnv.getTypeUtils();
+    }
+
+    private static String quote(final String value) {
+        final StringBuilder result = new StringBuilder("\"");
+        for(final char c : value.toCharArray()) {
+            switch (c) {
+                case '"': result.append("\\\""); break;
+                case '\\': result.append("\\\\"); break;
+                case '\n': result.append("\\n"); break;
+                case '\r': result.append("\\r"); break;
+                case '\t': result.append("\\t"); break;
+                default: result.append(c);
+            }
+        }
+
+        return result.append("\"").toString();
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of ImpactDev Command Manager, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2018-2022 NickImpact
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ *
+ */
+
+package net.impactdev.impactor.processor.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parsed representation of the syntax string of a {@code @CommandMethod}, following the same rules as
+ * cloud's annotation parser. Literals are written as-is, with aliases separated by {@code |}, required
+ * arguments are wrapped in {@code <>}, and optional arguments are wrapped in {@code []}.
+ */
+final class CommandSyntax {
+
+    private final List<Token> tokens;
+
+    private CommandSyntax(final List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    static CommandSyntax parse(final String syntax) throws UnsupportedCommandException {
+        final List<Token> tokens = new ArrayList<>();
+        for(final String part : syntax.trim().split(" ")) {
+            if(part.isEmpty()) {
+                continue;
+            }
+
+            if(part.startsWith("<") && part.endsWith(">")) {
+                tokens.add(new Token(Kind.REQUIRED, Collections.singletonList(part.substring(1, part.length() - 1))));
+            } else if(part.startsWith("[") && part.endsWith("]")) {
+                tokens.add(new Token(Kind.OPTIONAL, Collections.singletonList(part.substring(1, part.length() - 1))));
+            } else {
+                tokens.add(new Token(Kind.LITERAL, Arrays.asList(part.split("\\|"))));
+            }
+        }
+
+        if(tokens.isEmpty() || tokens.get(0).kind() != Kind.LITERAL) {
+            throw new UnsupportedCommandException("command syntax '" + syntax + "' does not begin with a literal");
+        }
+
+        return new CommandSyntax(tokens);
+    }
+
+    List<Token> tokens() {
+        return this.tokens;
+    }
+
+    enum Kind {
+        LITERAL,
+        REQUIRED,
+        OPTIONAL
+    }
+
+    static final class Token {
+
+        private final Kind kind;
+        private final List<String> names;
+
+        private Token(final Kind kind, final List<String> names) {
+            this.kind = kind;
+            this.names = names;
+        }
+
+        Kind kind() {
+            return this.kind;
+        }
+
+        String name() {
+            return this.names.get(0);
+        }
+
+        List<String> aliases() {
+            return this.names.subList(1, this.names.size());
+        }
+    }
+
+}
@@ -18,4 +18,5 @@ include(":api")
 include(":common")
 include(":fabric")
 include(":forge")
+include(":processor")
 